@@ -1,8 +1,15 @@
 package com.filae.api.application.controller;
 
+import com.filae.api.application.dto.common.CursorPageResponse;
 import com.filae.api.application.dto.establishment.EstablishmentResponse;
+import com.filae.api.application.dto.establishment.NearbyEstablishmentResponse;
 import com.filae.api.application.mapper.EstablishmentMapper;
+import com.filae.api.application.mapper.SparseFieldsetMapper;
 import com.filae.api.domain.entity.Establishment;
+import com.filae.api.domain.establishment.CachedEstablishment;
+import com.filae.api.domain.pagination.CursorPage;
+import com.filae.api.domain.queue.QueueSummary;
+import com.filae.api.domain.search.EstablishmentFilter;
 import com.filae.api.domain.service.EstablishmentService;
 import com.filae.api.infrastructure.logging.LogHelper;
 import jakarta.validation.Valid;
@@ -12,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -25,47 +34,74 @@ public class EstablishmentController {
 
     private final EstablishmentService establishmentService;
     private final EstablishmentMapper establishmentMapper;
+    private final SparseFieldsetMapper fieldsetMapper;
 
-    public EstablishmentController(EstablishmentService establishmentService, EstablishmentMapper establishmentMapper) {
+    public EstablishmentController(EstablishmentService establishmentService,
+                                   EstablishmentMapper establishmentMapper,
+                                   SparseFieldsetMapper fieldsetMapper) {
         this.establishmentService = establishmentService;
         this.establishmentMapper = establishmentMapper;
+        this.fieldsetMapper = fieldsetMapper;
     }
 
     /**
-     * Get all establishments with optional filters
+     * List establishments matching every given filter, one page at a time.
+     * fields limits each item to the listed EstablishmentResponse properties.
      */
     @GetMapping
-    public ResponseEntity<List<EstablishmentResponse>> getAllEstablishments(
+    public ResponseEntity<CursorPageResponse<Object>> getAllEstablishments(
+            @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) String name) {
-        LogHelper.logMethodEntry(log, "getAllEstablishments", category, city, name);
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = "false") boolean acceptingOnly,
+            @RequestParam(required = false) Boolean queueEnabled,
+            @RequestParam(required = false) Double minRating,
+            @RequestParam(required = false) Long merchantId,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        LogHelper.logMethodEntry(log, "getAllEstablishments", name, category, city, sort, cursor, limit);
+
+        Set<String> selected = fields != null ? fieldsetMapper.parse(fields, EstablishmentResponse.class) : null;
+        EstablishmentFilter filter = new EstablishmentFilter(name, category, city, state, acceptingOnly,
+                queueEnabled, minRating, merchantId);
+
+        CursorPage<EstablishmentResponse> found = establishmentService.list(filter, sort, cursor, limit)
+                .map(establishmentMapper::toResponse);
+        withQueueSummaries(found.items());
+        CursorPage<Object> page = found.map(response ->
+                selected != null ? fieldsetMapper.select(response, selected) : response);
+
+        LogHelper.logMethodExit(log, "getAllEstablishments", page.items().size() + " found");
+        return ResponseEntity.ok(CursorPageResponse.<Object>builder()
+                .items(page.items())
+                .nextCursor(page.nextCursor())
+                .hasMore(page.hasMore())
+                .build());
+    }
 
-        List<EstablishmentResponse> establishments;
+    /**
+     * Get establishments near a point, closest first, with their current queue length
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyEstablishmentResponse>> getNearbyEstablishments(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean acceptingOnly) {
+        LogHelper.logMethodEntry(log, "getNearbyEstablishments", lat, lng, radiusKm, limit, category, acceptingOnly);
 
-        if (name != null && !name.isEmpty()) {
-            establishments = establishmentService.searchByName(name)
-                .stream()
-                .map(establishmentMapper::toResponse)
-                .collect(Collectors.toList());
-        } else if (category != null && !category.isEmpty()) {
-            establishments = establishmentService.findByCategory(category)
-                .stream()
-                .map(establishmentMapper::toResponse)
-                .collect(Collectors.toList());
-        } else if (city != null && !city.isEmpty()) {
-            establishments = establishmentService.findByCity(city)
-                .stream()
-                .map(establishmentMapper::toResponse)
-                .collect(Collectors.toList());
-        } else {
-            establishments = establishmentService.findAll()
+        List<NearbyEstablishmentResponse> establishments = establishmentService
+                .findNearby(lat, lng, radiusKm, limit, category, acceptingOnly)
                 .stream()
-                .map(establishmentMapper::toResponse)
+                .map(establishmentMapper::toNearbyResponse)
                 .collect(Collectors.toList());
-        }
 
-        LogHelper.logMethodExit(log, "getAllEstablishments", establishments.size() + " found");
+        LogHelper.logMethodExit(log, "getNearbyEstablishments", establishments.size() + " found");
         return ResponseEntity.ok(establishments);
     }
 
@@ -76,31 +112,34 @@ public class EstablishmentController {
     public ResponseEntity<EstablishmentResponse> getEstablishmentById(@PathVariable Long id) {
         LogHelper.logMethodEntry(log, "getEstablishmentById", id);
 
-        Establishment establishment = establishmentService.findById(id)
+        CachedEstablishment establishment = establishmentService.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Establishment not found with id: " + id));
 
-        LogHelper.logMethodExit(log, "getEstablishmentById", establishment.getName());
-        return ResponseEntity.ok(establishmentMapper.toResponse(establishment));
+        EstablishmentResponse response = establishmentMapper.toResponse(establishment);
+        withQueueSummaries(List.of(response));
+
+        LogHelper.logMethodExit(log, "getEstablishmentById", establishment.name());
+        return ResponseEntity.ok(response);
     }
 
     /**
      * Create new establishment
      */
     @PostMapping
-    public ResponseEntity<Establishment> createEstablishment(@Valid @RequestBody Establishment establishment) {
+    public ResponseEntity<EstablishmentResponse> createEstablishment(@Valid @RequestBody Establishment establishment) {
         LogHelper.logMethodEntry(log, "createEstablishment", establishment.getName());
 
         Establishment created = establishmentService.createEstablishment(establishment);
 
         LogHelper.logMethodExit(log, "createEstablishment", created.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return ResponseEntity.status(HttpStatus.CREATED).body(establishmentMapper.toResponse(created));
     }
 
     /**
      * Update establishment
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Establishment> updateEstablishment(
+    public ResponseEntity<EstablishmentResponse> updateEstablishment(
             @PathVariable Long id,
             @Valid @RequestBody Establishment establishment) {
         LogHelper.logMethodEntry(log, "updateEstablishment", id);
@@ -108,7 +147,7 @@ public class EstablishmentController {
         Establishment updated = establishmentService.updateEstablishment(id, establishment);
 
         LogHelper.logMethodExit(log, "updateEstablishment", updated.getId());
-        return ResponseEntity.ok(updated);
+        return ResponseEntity.ok(establishmentMapper.toResponse(updated));
     }
 
     /**
@@ -123,5 +162,18 @@ public class EstablishmentController {
         LogHelper.logMethodExit(log, "deleteEstablishment");
         return ResponseEntity.noContent().build();
     }
-}
 
+    /**
+     * Fill in the live queue state of each establishment, fetched in one batch
+     */
+    private void withQueueSummaries(List<EstablishmentResponse> establishments) {
+        Map<Long, QueueSummary> summaries = establishmentService.getQueueSummaries(
+                establishments.stream().map(EstablishmentResponse::getId).toList());
+        for (EstablishmentResponse establishment : establishments) {
+            QueueSummary summary = summaries.get(establishment.getId());
+            establishment.setCurrentInQueue(summary.waiting());
+            establishment.setCurrentCalled(summary.called());
+            establishment.setCurrentWaitTime(summary.estimatedWaitTime());
+        }
+    }
+}
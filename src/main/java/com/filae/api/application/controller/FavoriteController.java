@@ -4,12 +4,13 @@ import com.filae.api.application.dto.favorite.AddFavoriteRequest;
 import com.filae.api.application.dto.favorite.FavoriteResponse;
 import com.filae.api.application.mapper.FavoriteMapper;
 import com.filae.api.domain.service.FavoriteService;
-import com.filae.api.domain.service.UserService;
 import com.filae.api.infrastructure.logging.LogHelper;
+import com.filae.api.infrastructure.security.AuthenticatedUser;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -27,12 +28,10 @@ public class FavoriteController {
     private static final Logger log = LogHelper.getLogger(FavoriteController.class);
 
     private final FavoriteService favoriteService;
-    private final UserService userService;
     private final FavoriteMapper favoriteMapper;
 
-    public FavoriteController(FavoriteService favoriteService, UserService userService, FavoriteMapper favoriteMapper) {
+    public FavoriteController(FavoriteService favoriteService, FavoriteMapper favoriteMapper) {
         this.favoriteService = favoriteService;
-        this.userService = userService;
         this.favoriteMapper = favoriteMapper;
     }
 
@@ -41,11 +40,10 @@ public class FavoriteController {
      */
     private Long getAuthenticatedUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            String email = auth.getName();
-            return userService.getUserByEmail(email).getId();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
         }
-        throw new IllegalStateException("User is not authenticated");
+        throw new AuthenticationCredentialsNotFoundException("User is not authenticated");
     }
 
     /**
@@ -1,8 +1,17 @@
 package com.filae.api.application.controller;
 
+import com.filae.api.application.dto.system.CacheStatsResponse;
+import com.filae.api.application.dto.system.NotificationPipelineStatsResponse;
+import com.filae.api.application.dto.system.RetentionStatsResponse;
 import com.filae.api.application.dto.system.SystemStatsResponse;
-import com.filae.api.domain.repository.*;
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.notification.NotificationPipeline;
+import com.filae.api.domain.notification.NotificationRetention;
+import com.filae.api.domain.notification.RetentionRun;
+import com.filae.api.domain.stats.SystemCounters;
+import com.filae.api.infrastructure.cache.CacheMetrics;
 import com.filae.api.infrastructure.logging.LogHelper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.slf4j.Logger;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,6 +20,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Controller for system health and status endpoints
@@ -22,22 +35,18 @@ public class HealthController {
     private static final Logger log = LogHelper.getLogger(HealthController.class);
     private static final String API_VERSION = "1.0.0";
 
-    private final UserRepository userRepository;
-    private final EstablishmentRepository establishmentRepository;
-    private final QueueRepository queueRepository;
-    private final NotificationRepository notificationRepository;
-    private final FavoriteRepository favoriteRepository;
-
-    public HealthController(UserRepository userRepository,
-                           EstablishmentRepository establishmentRepository,
-                           QueueRepository queueRepository,
-                           NotificationRepository notificationRepository,
-                           FavoriteRepository favoriteRepository) {
-        this.userRepository = userRepository;
-        this.establishmentRepository = establishmentRepository;
-        this.queueRepository = queueRepository;
-        this.notificationRepository = notificationRepository;
-        this.favoriteRepository = favoriteRepository;
+    private final SystemCounters systemCounters;
+    private final CacheMetrics cacheMetrics;
+    private final NotificationRetention notificationRetention;
+    private final NotificationPipeline notificationPipeline;
+
+    public HealthController(SystemCounters systemCounters, CacheMetrics cacheMetrics,
+                            NotificationRetention notificationRetention,
+                            NotificationPipeline notificationPipeline) {
+        this.systemCounters = systemCounters;
+        this.cacheMetrics = cacheMetrics;
+        this.notificationRetention = notificationRetention;
+        this.notificationPipeline = notificationPipeline;
     }
 
     /**
@@ -51,28 +60,30 @@ public class HealthController {
     }
 
     /**
-     * System statistics endpoint
+     * System statistics endpoint, served from in-memory counters
      */
     @GetMapping("/stats")
     public ResponseEntity<SystemStatsResponse> getSystemStats() {
         LogHelper.logMethodEntry(log, "getSystemStats");
 
         try {
-            long totalUsers = userRepository.count();
-            long totalEstablishments = establishmentRepository.count();
-            long activeQueues = queueRepository.count();
-            long totalNotifications = notificationRepository.count();
-            long totalFavorites = favoriteRepository.count();
+            Map<String, Long> queuesByStatus = new LinkedHashMap<>();
+            for (Queue.QueueStatus status : Queue.QueueStatus.values()) {
+                queuesByStatus.put(status.name(), systemCounters.getQueues(status));
+            }
+            LocalDateTime reconciledAt = systemCounters.getReconciledAt();
 
             SystemStatsResponse stats = SystemStatsResponse.builder()
                 .status("UP")
-                .totalUsers(totalUsers)
-                .totalEstablishments(totalEstablishments)
-                .activeQueues(activeQueues)
-                .totalNotifications(totalNotifications)
-                .totalFavorites(totalFavorites)
+                .totalUsers(systemCounters.getUsers())
+                .totalEstablishments(systemCounters.getEstablishments())
+                .activeQueues(systemCounters.getActiveQueues())
+                .queuesByStatus(queuesByStatus)
+                .totalNotifications(systemCounters.getNotifications())
+                .totalFavorites(systemCounters.getFavorites())
                 .apiVersion(API_VERSION)
                 .timestamp(LocalDateTime.now().format(DateTimeFormatter.ISO_DATE_TIME))
+                .reconciledAt(reconciledAt != null ? reconciledAt.format(DateTimeFormatter.ISO_DATE_TIME) : null)
                 .build();
 
             LogHelper.logMethodExit(log, "getSystemStats", "stats retrieved");
@@ -88,5 +99,74 @@ public class HealthController {
             return ResponseEntity.internalServerError().body(errorStats);
         }
     }
-}
 
+    /**
+     * In-process cache statistics endpoint
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        LogHelper.logMethodEntry(log, "getCacheStats");
+
+        List<CacheStatsResponse> caches = cacheMetrics.getCaches().entrySet()
+            .stream()
+            .map(entry -> {
+                CacheStats stats = entry.getValue().stats();
+                return CacheStatsResponse.builder()
+                    .name(entry.getKey())
+                    .size(entry.getValue().estimatedSize())
+                    .hitCount(stats.hitCount())
+                    .missCount(stats.missCount())
+                    .hitRatio(stats.hitRate())
+                    .evictionCount(stats.evictionCount())
+                    .build();
+            })
+            .collect(Collectors.toList());
+
+        LogHelper.logMethodExit(log, "getCacheStats", caches.size() + " caches");
+        return ResponseEntity.ok(caches);
+    }
+
+    /**
+     * Notification retention job statistics (rows purged per run)
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<RetentionStatsResponse> getRetentionStats() {
+        LogHelper.logMethodEntry(log, "getRetentionStats");
+
+        RetentionRun lastRun = notificationRetention.getLastRun();
+        RetentionStatsResponse.RetentionStatsResponseBuilder stats = RetentionStatsResponse.builder()
+            .runs(notificationRetention.getRuns())
+            .totalPurged(notificationRetention.getTotalPurged());
+        if (lastRun != null) {
+            stats.lastRunAt(lastRun.startedAt().format(DateTimeFormatter.ISO_DATE_TIME))
+                .lastRunDurationMillis(lastRun.durationMillis())
+                .lastRunReadPurged(lastRun.readPurged())
+                .lastRunCompacted(lastRun.compacted())
+                .lastRunBatches(lastRun.batches());
+        }
+
+        LogHelper.logMethodExit(log, "getRetentionStats");
+        return ResponseEntity.ok(stats.build());
+    }
+
+    /**
+     * Notification pipeline backlog and throughput counters
+     */
+    @GetMapping("/notifications")
+    public ResponseEntity<NotificationPipelineStatsResponse> getNotificationPipelineStats() {
+        LogHelper.logMethodEntry(log, "getNotificationPipelineStats");
+
+        NotificationPipelineStatsResponse stats = NotificationPipelineStatsResponse.builder()
+            .queued(notificationPipeline.getQueued())
+            .pendingPositionUpdates(notificationPipeline.getPendingPositionUpdates())
+            .enqueued(notificationPipeline.getEnqueued())
+            .merged(notificationPipeline.getMerged())
+            .dropped(notificationPipeline.getDropped())
+            .written(notificationPipeline.getWritten())
+            .failed(notificationPipeline.getFailed())
+            .build();
+
+        LogHelper.logMethodExit(log, "getNotificationPipelineStats");
+        return ResponseEntity.ok(stats);
+    }
+}
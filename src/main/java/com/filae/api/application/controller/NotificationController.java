@@ -3,13 +3,18 @@ package com.filae.api.application.controller;
 import com.filae.api.application.dto.notification.NotificationResponse;
 import com.filae.api.application.mapper.NotificationMapper;
 import com.filae.api.domain.service.NotificationService;
-import com.filae.api.domain.service.UserService;
 import com.filae.api.infrastructure.logging.LogHelper;
+import com.filae.api.infrastructure.security.AuthenticatedUser;
+import com.filae.api.infrastructure.websocket.NotificationPushPublisher;
+import com.filae.api.infrastructure.websocket.QueueSseEmitters;
 import org.slf4j.Logger;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,15 +29,15 @@ public class NotificationController {
     private static final Logger log = LogHelper.getLogger(NotificationController.class);
 
     private final NotificationService notificationService;
-    private final UserService userService;
     private final NotificationMapper notificationMapper;
+    private final QueueSseEmitters sseEmitters;
 
     public NotificationController(NotificationService notificationService,
-                                 UserService userService,
-                                 NotificationMapper notificationMapper) {
+                                 NotificationMapper notificationMapper,
+                                 QueueSseEmitters sseEmitters) {
         this.notificationService = notificationService;
-        this.userService = userService;
         this.notificationMapper = notificationMapper;
+        this.sseEmitters = sseEmitters;
     }
 
     /**
@@ -40,11 +45,10 @@ public class NotificationController {
      */
     private Long getAuthenticatedUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            String email = auth.getName();
-            return userService.getUserByEmail(email).getId();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
         }
-        throw new IllegalStateException("User is not authenticated");
+        throw new AuthenticationCredentialsNotFoundException("User is not authenticated");
     }
 
     /**
@@ -90,6 +94,18 @@ public class NotificationController {
         return ResponseEntity.ok(count);
     }
 
+    /**
+     * Stream new notifications with the unread count (SSE alternative to /topic/users/{id}/notifications)
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotifications() {
+        Long userId = getAuthenticatedUserId();
+
+        LogHelper.logMethodEntry(log, "streamNotifications", userId);
+
+        return sseEmitters.subscribe(NotificationPushPublisher.userDestination(userId));
+    }
+
     /**
      * Mark notification as read
      */
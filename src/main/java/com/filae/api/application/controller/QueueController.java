@@ -1,18 +1,34 @@
 package com.filae.api.application.controller;
 
+import com.filae.api.application.dto.common.CursorPageResponse;
 import com.filae.api.application.dto.queue.JoinQueueRequest;
+import com.filae.api.application.dto.queue.MerchantQueueStatsResponse;
 import com.filae.api.application.dto.queue.QueueResponse;
 import com.filae.api.application.mapper.QueueMapper;
-import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.pagination.CursorPage;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.domain.service.QueueExportService;
 import com.filae.api.domain.service.QueueService;
-import com.filae.api.domain.service.UserService;
+import com.filae.api.domain.stats.MerchantQueueStats;
 import com.filae.api.infrastructure.logging.LogHelper;
+import com.filae.api.infrastructure.security.AuthenticatedUser;
+import com.filae.api.infrastructure.websocket.QueueSseEmitters;
+import com.filae.api.infrastructure.websocket.QueueUpdatePublisher;
 import org.slf4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,13 +43,16 @@ public class QueueController {
     private static final Logger log = LogHelper.getLogger(QueueController.class);
 
     private final QueueService queueService;
-    private final UserService userService;
     private final QueueMapper queueMapper;
+    private final QueueSseEmitters sseEmitters;
+    private final QueueExportService queueExportService;
 
-    public QueueController(QueueService queueService, UserService userService, QueueMapper queueMapper) {
+    public QueueController(QueueService queueService, QueueMapper queueMapper,
+                           QueueSseEmitters sseEmitters, QueueExportService queueExportService) {
         this.queueService = queueService;
-        this.userService = userService;
+        this.queueExportService = queueExportService;
         this.queueMapper = queueMapper;
+        this.sseEmitters = sseEmitters;
     }
 
     /**
@@ -41,30 +60,32 @@ public class QueueController {
      */
     private Long getAuthenticatedUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            String email = auth.getName();
-            return userService.getUserByEmail(email).getId();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
         }
-        throw new IllegalStateException("User is not authenticated");
+        throw new AuthenticationCredentialsNotFoundException("User is not authenticated");
     }
 
     /**
-     * Join a queue
+     * Join a queue (retries carrying the same Idempotency-Key return the original ticket)
      */
     @PostMapping("/join")
-    public ResponseEntity<QueueResponse> joinQueue(@RequestBody JoinQueueRequest request) {
+    public ResponseEntity<QueueResponse> joinQueue(
+            @RequestBody JoinQueueRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Long userId = getAuthenticatedUserId();
 
         LogHelper.logMethodEntry(log, "joinQueue", request.getEstablishmentId());
 
-        Queue queue = queueService.joinQueue(
+        QueueSnapshot queue = queueService.joinQueue(
             request.getEstablishmentId(),
             userId,
             request.getPartySize(),
-            request.getNotes()
+            request.getNotes(),
+            idempotencyKey
         );
 
-        LogHelper.logMethodExit(log, "joinQueue", queue.getTicketNumber());
+        LogHelper.logMethodExit(log, "joinQueue", queue.ticketNumber());
         return ResponseEntity.status(HttpStatus.CREATED).body(queueMapper.toResponse(queue));
     }
 
@@ -93,10 +114,10 @@ public class QueueController {
     public ResponseEntity<QueueResponse> getQueueById(@PathVariable Long id) {
         LogHelper.logMethodEntry(log, "getQueueById", id);
 
-        Queue queue = queueService.getQueueById(id)
+        QueueSnapshot queue = queueService.getQueueById(id)
             .orElseThrow(() -> new IllegalArgumentException("Queue not found with id: " + id));
 
-        LogHelper.logMethodExit(log, "getQueueById", queue.getTicketNumber());
+        LogHelper.logMethodExit(log, "getQueueById", queue.ticketNumber());
         return ResponseEntity.ok(queueMapper.toResponse(queue));
     }
 
@@ -116,6 +137,35 @@ public class QueueController {
         return ResponseEntity.ok(queues);
     }
 
+    /**
+     * Stream position updates for a queue entry (SSE alternative to /topic/tickets/{id});
+     * only its owner and the establishment's merchant may follow it
+     */
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamQueue(@PathVariable Long id) {
+        Long userId = getAuthenticatedUserId();
+
+        LogHelper.logMethodEntry(log, "streamQueue", id);
+
+        QueueSnapshot queue = queueService.getQueueById(id)
+            .orElseThrow(() -> new IllegalArgumentException("Queue not found with id: " + id));
+        if (!queue.isVisibleTo(userId)) {
+            throw new AccessDeniedException("Not allowed to follow this queue entry");
+        }
+
+        return sseEmitters.subscribe(QueueUpdatePublisher.ticketDestination(id));
+    }
+
+    /**
+     * Stream queue updates for an establishment (SSE alternative to /topic/establishments/{id}/queue)
+     */
+    @GetMapping(value = "/establishment/{establishmentId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEstablishmentQueue(@PathVariable Long establishmentId) {
+        LogHelper.logMethodEntry(log, "streamEstablishmentQueue", establishmentId);
+
+        return sseEmitters.subscribe(QueueUpdatePublisher.establishmentDestination(establishmentId));
+    }
+
     /**
      * Cancel queue entry
      */
@@ -138,9 +188,9 @@ public class QueueController {
     public ResponseEntity<QueueResponse> callNext(@PathVariable Long establishmentId) {
         LogHelper.logMethodEntry(log, "callNext", establishmentId);
 
-        Queue queue = queueService.callNext(establishmentId);
+        QueueSnapshot queue = queueService.callNext(establishmentId);
 
-        LogHelper.logMethodExit(log, "callNext", queue.getTicketNumber());
+        LogHelper.logMethodExit(log, "callNext", queue.ticketNumber());
         return ResponseEntity.ok(queueMapper.toResponse(queue));
     }
 
@@ -158,21 +208,48 @@ public class QueueController {
     }
 
     /**
-     * Get all queues for merchant
+     * Get all queues for merchant, newest first, one page at a time
      */
     @GetMapping("/merchant/all")
-    public ResponseEntity<List<QueueResponse>> getMerchantAllQueues() {
+    public ResponseEntity<CursorPageResponse<QueueResponse>> getMerchantAllQueues(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         Long merchantId = getAuthenticatedUserId();
 
-        LogHelper.logMethodEntry(log, "getMerchantAllQueues", merchantId);
+        LogHelper.logMethodEntry(log, "getMerchantAllQueues", merchantId, cursor, limit);
 
-        List<QueueResponse> queues = queueService.getMerchantAllQueues(merchantId)
-            .stream()
-            .map(queueMapper::toResponse)
-            .collect(Collectors.toList());
+        CursorPage<QueueSnapshot> page = queueService.getMerchantAllQueues(merchantId, cursor, limit);
 
-        LogHelper.logMethodExit(log, "getMerchantAllQueues", queues.size() + " queues");
-        return ResponseEntity.ok(queues);
+        LogHelper.logMethodExit(log, "getMerchantAllQueues", page.items().size() + " queues");
+        return ResponseEntity.ok(toPageResponse(page));
+    }
+
+    /**
+     * Export the merchant's full queue history as CSV or NDJSON, streamed row by row
+     */
+    @GetMapping("/merchant/export")
+    public ResponseEntity<StreamingResponseBody> exportMerchantQueues(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Long merchantId = getAuthenticatedUserId();
+
+        LogHelper.logMethodEntry(log, "exportMerchantQueues", merchantId, format, from, to);
+
+        QueueExportService.Format exportFormat = QueueExportService.Format.from(format);
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+
+        StreamingResponseBody stream = out ->
+            queueExportService.exportMerchantHistory(merchantId, exportFormat, from, to, out);
+
+        LogHelper.logMethodExit(log, "exportMerchantQueues", exportFormat);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_TYPE, exportFormat.getContentType())
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"queue-history." + exportFormat.getExtension() + "\"")
+            .body(stream);
     }
 
     /**
@@ -194,46 +271,44 @@ public class QueueController {
     }
 
     /**
-     * Get queues for a specific merchant establishment
+     * Get queues for a specific merchant establishment, newest first, one page at a time
      */
     @GetMapping("/merchant/establishment/{establishmentId}")
-    public ResponseEntity<List<QueueResponse>> getMerchantEstablishmentQueues(@PathVariable Long establishmentId) {
+    public ResponseEntity<CursorPageResponse<QueueResponse>> getMerchantEstablishmentQueues(
+            @PathVariable Long establishmentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         Long merchantId = getAuthenticatedUserId();
 
-        LogHelper.logMethodEntry(log, "getMerchantEstablishmentQueues", merchantId, establishmentId);
+        LogHelper.logMethodEntry(log, "getMerchantEstablishmentQueues", merchantId, establishmentId, cursor, limit);
 
-        List<QueueResponse> queues = queueService.getMerchantEstablishmentQueues(merchantId, establishmentId)
-            .stream()
-            .map(queueMapper::toResponse)
-            .collect(Collectors.toList());
+        CursorPage<QueueSnapshot> page =
+            queueService.getMerchantEstablishmentQueues(merchantId, establishmentId, cursor, limit);
 
-        LogHelper.logMethodExit(log, "getMerchantEstablishmentQueues", queues.size() + " queues");
-        return ResponseEntity.ok(queues);
+        LogHelper.logMethodExit(log, "getMerchantEstablishmentQueues", page.items().size() + " queues");
+        return ResponseEntity.ok(toPageResponse(page));
     }
 
     /**
-     * Get queue statistics for merchant
+     * Get queue statistics for merchant, with a breakdown per establishment
      */
     @GetMapping("/merchant/stats")
-    public ResponseEntity<MerchantQueueStats> getMerchantQueueStats() {
+    public ResponseEntity<MerchantQueueStatsResponse> getMerchantQueueStats() {
         Long merchantId = getAuthenticatedUserId();
 
         LogHelper.logMethodEntry(log, "getMerchantQueueStats", merchantId);
 
-        Integer waitingCount = queueService.getMerchantQueueCount(merchantId, Queue.QueueStatus.WAITING);
-        Integer calledCount = queueService.getMerchantQueueCount(merchantId, Queue.QueueStatus.CALLED);
-        Integer finishedCount = queueService.getMerchantQueueCount(merchantId, Queue.QueueStatus.FINISHED);
-
-        MerchantQueueStats stats = new MerchantQueueStats(waitingCount, calledCount, finishedCount);
+        MerchantQueueStats stats = queueService.getMerchantQueueStats(merchantId);
 
         LogHelper.logMethodExit(log, "getMerchantQueueStats");
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(queueMapper.toResponse(stats));
     }
 
-    /**
-     * Simple DTO for merchant queue statistics
-     */
-    public record MerchantQueueStats(Integer waiting, Integer called, Integer finished) {
+    private CursorPageResponse<QueueResponse> toPageResponse(CursorPage<QueueSnapshot> page) {
+        return CursorPageResponse.<QueueResponse>builder()
+            .items(page.map(queueMapper::toResponse).items())
+            .nextCursor(page.nextCursor())
+            .hasMore(page.hasMore())
+            .build();
     }
 }
-
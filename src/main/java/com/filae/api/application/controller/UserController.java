@@ -6,9 +6,11 @@ import com.filae.api.application.mapper.UserMapper;
 import com.filae.api.domain.entity.User;
 import com.filae.api.domain.service.UserService;
 import com.filae.api.infrastructure.logging.LogHelper;
+import com.filae.api.infrastructure.security.AuthenticatedUser;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
@@ -35,11 +37,10 @@ public class UserController {
      */
     private Long getAuthenticatedUserId() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated()) {
-            String email = auth.getName();
-            return userService.getUserByEmail(email).getId();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
         }
-        throw new IllegalStateException("User is not authenticated");
+        throw new AuthenticationCredentialsNotFoundException("User is not authenticated");
     }
 
     /**
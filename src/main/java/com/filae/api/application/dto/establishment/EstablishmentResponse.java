@@ -28,5 +28,6 @@ public class EstablishmentResponse {
     private Boolean isAcceptingCustomers;
     private Integer maxCapacity;
     private Integer currentInQueue;
+    private Integer currentCalled;
 }
 
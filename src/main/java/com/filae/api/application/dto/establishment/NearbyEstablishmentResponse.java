@@ -0,0 +1,29 @@
+package com.filae.api.application.dto.establishment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for an establishment returned by a nearby lookup
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyEstablishmentResponse {
+    private Long id;
+    private String name;
+    private String address;
+    private String city;
+    private String category;
+    private Double latitude;
+    private Double longitude;
+    private Double rating;
+    private Boolean queueEnabled;
+    private Boolean isAcceptingCustomers;
+    private Double distanceKm;
+    private Integer currentInQueue;
+    private Integer currentWaitTime;
+}
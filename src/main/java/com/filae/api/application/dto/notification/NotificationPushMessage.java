@@ -0,0 +1,34 @@
+package com.filae.api.application.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Real-time push of new notifications together with the user's unread count
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationPushMessage {
+    private Long unreadCount;
+    private List<Item> notifications;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+        private String type;
+        private String title;
+        private String message;
+        private Long ticketId;
+        private Long establishmentId;
+        private LocalDateTime createdAt;
+    }
+}
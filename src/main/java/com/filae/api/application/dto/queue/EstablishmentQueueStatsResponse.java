@@ -0,0 +1,23 @@
+package com.filae.api.application.dto.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the queue statistics of one establishment
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EstablishmentQueueStatsResponse {
+    private Long establishmentId;
+    private Long waiting;
+    private Long called;
+    private Long finished;
+    private Long cancelled;
+    private Double averageWaitMinutes;
+    private Long finishedLastHour;
+}
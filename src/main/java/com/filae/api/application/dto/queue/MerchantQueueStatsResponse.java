@@ -0,0 +1,25 @@
+package com.filae.api.application.dto.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for merchant queue statistics
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MerchantQueueStatsResponse {
+    private Long waiting;
+    private Long called;
+    private Long finished;
+    private Long cancelled;
+    private Double averageWaitMinutes;
+    private Long finishedLastHour;
+    private List<EstablishmentQueueStatsResponse> establishments;
+}
@@ -0,0 +1,23 @@
+package com.filae.api.application.dto.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Real-time update for an establishment's queue: only tickets that changed since the previous frame
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueueUpdateMessage {
+    private Long establishmentId;
+    private Integer totalInQueue;
+    private List<TicketUpdateMessage> changes;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,22 @@
+package com.filae.api.application.dto.queue;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Real-time update for a single ticket (position/ETA change or new status)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketUpdateMessage {
+    private Long queueId;
+    private String ticketNumber;
+    private String status;
+    private Integer position;
+    private Integer totalInQueue;
+    private Integer estimatedWaitTime;
+}
@@ -0,0 +1,23 @@
+package com.filae.api.application.dto.system;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for notification pipeline statistics
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationPipelineStatsResponse {
+    private Integer queued;
+    private Integer pendingPositionUpdates;
+    private Long enqueued;
+    private Long merged;
+    private Long dropped;
+    private Long written;
+    private Long failed;
+}
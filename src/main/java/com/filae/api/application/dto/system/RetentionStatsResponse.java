@@ -0,0 +1,23 @@
+package com.filae.api.application.dto.system;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for notification retention job statistics
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RetentionStatsResponse {
+    private Long runs;
+    private Long totalPurged;
+    private String lastRunAt;
+    private Long lastRunDurationMillis;
+    private Long lastRunReadPurged;
+    private Long lastRunCompacted;
+    private Integer lastRunBatches;
+}
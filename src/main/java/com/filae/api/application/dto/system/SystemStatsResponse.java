@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 /**
  * DTO for system health and statistics
  */
@@ -17,9 +19,11 @@ public class SystemStatsResponse {
     private Long totalUsers;
     private Long totalEstablishments;
     private Long activeQueues;
+    private Map<String, Long> queuesByStatus;
     private Long totalNotifications;
     private Long totalFavorites;
     private String apiVersion;
     private String timestamp;
+    private String reconciledAt;
 }
 
@@ -1,15 +1,38 @@
 package com.filae.api.application.mapper;
 
 import com.filae.api.application.dto.establishment.EstablishmentResponse;
+import com.filae.api.application.dto.establishment.NearbyEstablishmentResponse;
 import com.filae.api.domain.entity.Establishment;
+import com.filae.api.domain.establishment.CachedEstablishment;
+import com.filae.api.domain.search.NearbyEstablishment;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * MapStruct mapper for Establishment entity to EstablishmentResponse DTO
+ *
+ * Live queue fields are filled by the controller from the queue summaries.
  */
 @Mapper(componentModel = "spring")
 public interface EstablishmentMapper {
 
+    @Mapping(target = "phone", source = "phoneNumber")
+    @Mapping(target = "currentWaitTime", ignore = true)
+    @Mapping(target = "estimatedServeTime", ignore = true)
+    @Mapping(target = "maxCapacity", ignore = true)
+    @Mapping(target = "currentInQueue", ignore = true)
+    @Mapping(target = "currentCalled", ignore = true)
     EstablishmentResponse toResponse(Establishment establishment);
+
+    @Mapping(target = "phone", source = "phoneNumber")
+    @Mapping(target = "currentWaitTime", ignore = true)
+    @Mapping(target = "estimatedServeTime", ignore = true)
+    @Mapping(target = "maxCapacity", ignore = true)
+    @Mapping(target = "currentInQueue", ignore = true)
+    @Mapping(target = "currentCalled", ignore = true)
+    EstablishmentResponse toResponse(CachedEstablishment establishment);
+
+    @Mapping(target = ".", source = "establishment")
+    NearbyEstablishmentResponse toNearbyResponse(NearbyEstablishment nearby);
 }
 
@@ -1,7 +1,12 @@
 package com.filae.api.application.mapper;
 
+import com.filae.api.application.dto.queue.EstablishmentQueueStatsResponse;
+import com.filae.api.application.dto.queue.MerchantQueueStatsResponse;
 import com.filae.api.application.dto.queue.QueueResponse;
 import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.domain.stats.EstablishmentQueueStats;
+import com.filae.api.domain.stats.MerchantQueueStats;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -17,5 +22,11 @@ public interface QueueMapper {
     @Mapping(source = "user.name", target = "userName")
     @Mapping(target = "status", expression = "java(queue.getStatus().toString())")
     QueueResponse toResponse(Queue queue);
+
+    QueueResponse toResponse(QueueSnapshot snapshot);
+
+    MerchantQueueStatsResponse toResponse(MerchantQueueStats stats);
+
+    EstablishmentQueueStatsResponse toResponse(EstablishmentQueueStats stats);
 }
 
@@ -0,0 +1,62 @@
+package com.filae.api.application.mapper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reduces response DTOs to the fields a client asked for (?fields=id,name,...)
+ */
+@Component
+public class SparseFieldsetMapper {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> FIELDS = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public SparseFieldsetMapper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parse a comma-separated field list, rejecting names the DTO type does not have
+     */
+    public Set<String> parse(String fields, Class<?> type) {
+        Set<String> known = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(type))
+                .findProperties().stream()
+                .map(property -> property.getName())
+                .collect(Collectors.toSet());
+
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        for (String field : requested) {
+            if (!known.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        return requested;
+    }
+
+    /**
+     * Only the requested fields of a DTO, in the DTO's own order
+     */
+    public Map<String, Object> select(Object dto, Set<String> fields) {
+        Map<String, Object> all = objectMapper.convertValue(dto, FIELDS);
+        all.keySet().retainAll(fields);
+        return all;
+    }
+}
@@ -60,18 +60,22 @@ public class Establishment {
     @Column(name = "photo_url")
     private String photoUrl;
 
+    @Builder.Default
     private Double rating = 0.0;
 
     @Column(name = "review_count")
+    @Builder.Default
     private Integer reviewCount = 0;
 
     @Column(name = "is_accepting_customers")
+    @Builder.Default
     private Boolean isAcceptingCustomers = true;
 
     @Column(name = "queue_enabled")
+    @Builder.Default
     private Boolean queueEnabled = true;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "merchant_id")
     private User merchant;
 
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Generated;
 
 import java.time.LocalDateTime;
 
@@ -26,14 +27,14 @@ public class Queue {
     @Column(name = "ticket_number", unique = true, nullable = false)
     private String ticketNumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "establishment_id", nullable = false)
     private Establishment establishment;
 
     @Column(name = "merchant_id", nullable = false)
     private Long merchantId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -43,6 +44,19 @@ public class Queue {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    /**
+     * Idempotency-Key the entry was created with, if any
+     */
+    @Column(name = "join_key", updatable = false)
+    private String joinKey;
+
+    /**
+     * Immutable ordering key assigned by the database on insert
+     */
+    @Generated
+    @Column(name = "sequence_number", insertable = false, updatable = false)
+    private Long sequenceNumber;
+
     @Column(nullable = false)
     private Integer position;
 
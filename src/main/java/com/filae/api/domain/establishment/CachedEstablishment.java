@@ -0,0 +1,52 @@
+package com.filae.api.domain.establishment;
+
+import com.filae.api.domain.entity.Establishment;
+
+/**
+ * Immutable copy of an establishment's columns, safe to share between requests
+ */
+public record CachedEstablishment(
+        Long id,
+        String name,
+        String description,
+        String category,
+        String address,
+        String city,
+        String state,
+        String zipCode,
+        Double latitude,
+        Double longitude,
+        String phoneNumber,
+        String email,
+        String website,
+        String photoUrl,
+        Double rating,
+        Integer reviewCount,
+        Boolean isAcceptingCustomers,
+        Boolean queueEnabled,
+        Long merchantId) {
+
+    public static CachedEstablishment from(Establishment establishment) {
+        return new CachedEstablishment(
+                establishment.getId(),
+                establishment.getName(),
+                establishment.getDescription(),
+                establishment.getCategory(),
+                establishment.getAddress(),
+                establishment.getCity(),
+                establishment.getState(),
+                establishment.getZipCode(),
+                establishment.getLatitude(),
+                establishment.getLongitude(),
+                establishment.getPhoneNumber(),
+                establishment.getEmail(),
+                establishment.getWebsite(),
+                establishment.getPhotoUrl(),
+                establishment.getRating(),
+                establishment.getReviewCount(),
+                establishment.getIsAcceptingCustomers(),
+                establishment.getQueueEnabled(),
+                establishment.getMerchant() != null ? establishment.getMerchant().getId() : null
+        );
+    }
+}
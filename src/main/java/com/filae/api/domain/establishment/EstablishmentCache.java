@@ -0,0 +1,78 @@
+package com.filae.api.domain.establishment;
+
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.domain.repository.EstablishmentRepository;
+import com.filae.api.infrastructure.cache.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache of establishments by id.
+ *
+ * Entries are dropped when a change commits on this node and, through
+ * EstablishmentChangeNotifications, when it commits on any other node. Every
+ * entry also expires after the configured TTL, which bounds how stale a read
+ * can be even if a notification is lost.
+ *
+ * An invalidation waits for a load of the same id that is in flight, so a
+ * value read before a commit is never left behind by that commit's
+ * invalidation. Missing establishments are not cached.
+ */
+@Component
+public class EstablishmentCache {
+
+    private final EstablishmentRepository establishmentRepository;
+    private final Cache<Long, CachedEstablishment> establishments;
+
+    public EstablishmentCache(EstablishmentRepository establishmentRepository,
+                              CacheMetrics cacheMetrics,
+                              @Value("${establishments.cache.max-size:10000}") long maxSize,
+                              @Value("${establishments.cache.ttl:60000}") long ttlMillis) {
+        this.establishmentRepository = establishmentRepository;
+        this.establishments = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        cacheMetrics.register("establishments", establishments);
+    }
+
+    /**
+     * Establishment by id, loaded from the database on a miss
+     */
+    public Optional<CachedEstablishment> get(Long id) {
+        return Optional.ofNullable(establishments.get(id, this::load));
+    }
+
+    /**
+     * Drop one establishment
+     */
+    public void invalidate(Long id) {
+        establishments.invalidate(id);
+    }
+
+    /**
+     * Drop every establishment, e.g. after change notifications may have been missed
+     */
+    public void invalidateAll() {
+        establishments.invalidateAll();
+    }
+
+    /**
+     * Drop an establishment once its change is committed
+     */
+    @TransactionalEventListener
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        invalidate(event.establishmentId());
+    }
+
+    private CachedEstablishment load(Long id) {
+        return establishmentRepository.findById(id).map(CachedEstablishment::from).orElse(null);
+    }
+}
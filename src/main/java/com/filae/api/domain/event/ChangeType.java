@@ -0,0 +1,10 @@
+package com.filae.api.domain.event;
+
+/**
+ * Kind of change carried by an entity change event
+ */
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
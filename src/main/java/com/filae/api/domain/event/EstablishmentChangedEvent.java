@@ -0,0 +1,10 @@
+package com.filae.api.domain.event;
+
+/**
+ * Published by EstablishmentService when an establishment is created, updated or deleted
+ *
+ * @param establishmentId id of the establishment
+ * @param type            kind of change
+ */
+public record EstablishmentChangedEvent(Long establishmentId, ChangeType type) {
+}
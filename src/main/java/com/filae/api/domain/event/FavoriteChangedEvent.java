@@ -0,0 +1,11 @@
+package com.filae.api.domain.event;
+
+/**
+ * Published by FavoriteService when a favorite is added (CREATED) or removed (DELETED)
+ *
+ * @param userId          owner of the favorite
+ * @param establishmentId favorited establishment
+ * @param type            kind of change
+ */
+public record FavoriteChangedEvent(Long userId, Long establishmentId, ChangeType type) {
+}
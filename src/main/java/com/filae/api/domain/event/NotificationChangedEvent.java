@@ -0,0 +1,11 @@
+package com.filae.api.domain.event;
+
+/**
+ * Published by NotificationService when a notification is created, updated or deleted
+ *
+ * @param notificationId id of the notification
+ * @param userId         recipient of the notification
+ * @param type           kind of change
+ */
+public record NotificationChangedEvent(Long notificationId, Long userId, ChangeType type) {
+}
@@ -0,0 +1,17 @@
+package com.filae.api.domain.event;
+
+import com.filae.api.domain.notification.NotificationRequest;
+
+import java.util.List;
+
+/**
+ * Published by the NotificationPipeline once notifications for a user have been written
+ *
+ * @param notifications notifications written in this batch, oldest first
+ * @param unreadCount   user's unread count after the batch
+ */
+public record NotificationsDeliveredEvent(
+        Long userId,
+        List<NotificationRequest> notifications,
+        long unreadCount) {
+}
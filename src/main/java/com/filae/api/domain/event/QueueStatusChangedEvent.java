@@ -0,0 +1,28 @@
+package com.filae.api.domain.event;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.queue.QueueSnapshot;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by QueueService whenever a queue entry is created or changes status.
+ * Listeners should react after commit so rolled back changes are never observed.
+ *
+ * @param ticket         entry after the change
+ * @param previousStatus status before the change, null when the entry was just created
+ * @param occurredAt     when the change was made
+ */
+public record QueueStatusChangedEvent(
+        QueueSnapshot ticket,
+        Queue.QueueStatus previousStatus,
+        LocalDateTime occurredAt) {
+
+    public Long establishmentId() {
+        return ticket.establishmentId();
+    }
+
+    public Queue.QueueStatus newStatus() {
+        return ticket.status();
+    }
+}
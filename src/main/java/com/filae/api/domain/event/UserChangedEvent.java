@@ -0,0 +1,10 @@
+package com.filae.api.domain.event;
+
+/**
+ * Published by UserService when a user is created, updated or deleted
+ *
+ * @param userId id of the user
+ * @param type   kind of change
+ */
+public record UserChangedEvent(Long userId, ChangeType type) {
+}
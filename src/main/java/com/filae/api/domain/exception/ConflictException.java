@@ -0,0 +1,12 @@
+package com.filae.api.domain.exception;
+
+/**
+ * A request conflicts with the current state of a resource (reported as 409 Conflict),
+ * e.g. joining a queue the user is already in
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
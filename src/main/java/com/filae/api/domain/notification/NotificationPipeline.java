@@ -0,0 +1,275 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.event.NotificationsDeliveredEvent;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.stats.SystemCounters;
+import com.filae.api.infrastructure.logging.LogHelper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process, batched notification writer.
+ *
+ * Producers only enqueue; a scheduled writer drains the pipeline and inserts
+ * the notifications with JDBC batches. Two lanes with different policies:
+ * - regular notifications go to a bounded queue; when it is full the producer
+ *   waits up to enqueue-timeout (backpressure) and the notification is dropped
+ *   if there is still no room
+ * - POSITION_UPDATE notifications are merged per ticket, so only the latest
+ *   one since the previous flush is written; a ticket's pending update is
+ *   discarded once a regular notification for it (called, cancelled) arrives,
+ *   and new tickets are dropped while the merge lane is full. An update
+ *   computed before the ticket left the queue can still arrive after that
+ *   notification, so updates for tickets no longer waiting are discarded when
+ *   flushed
+ *
+ * Unread counters are updated as batches are written, and each user with new
+ * notifications gets a NotificationsDeliveredEvent carrying them and the new
+ * unread count, for pushing to connected clients.
+ *
+ * Notifications are not durable until written: anything still queued when the
+ * process dies is lost, which is acceptable for these informational messages.
+ */
+@Component
+public class NotificationPipeline {
+
+    private static final Logger log = LogHelper.getLogger(NotificationPipeline.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (user_id, ticket_id, establishment_id, type, title, message, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, FALSE, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SystemCounters systemCounters;
+    private final QueueEngine queueEngine;
+    private final UnreadNotificationCounters unreadCounters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int positionUpdateCapacity;
+    private final long enqueueTimeoutMillis;
+
+    private final BlockingQueue<NotificationRequest> queue;
+    private final Map<Long, NotificationRequest> positionUpdates = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingPositionUpdates = new AtomicInteger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public NotificationPipeline(JdbcTemplate jdbcTemplate,
+                                SystemCounters systemCounters,
+                                QueueEngine queueEngine,
+                                UnreadNotificationCounters unreadCounters,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${notifications.pipeline.capacity:10000}") int capacity,
+                                @Value("${notifications.pipeline.position-update-capacity:50000}") int positionUpdateCapacity,
+                                @Value("${notifications.pipeline.batch-size:500}") int batchSize,
+                                @Value("${notifications.pipeline.enqueue-timeout:50}") long enqueueTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.systemCounters = systemCounters;
+        this.queueEngine = queueEngine;
+        this.unreadCounters = unreadCounters;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.positionUpdateCapacity = positionUpdateCapacity;
+        this.batchSize = batchSize;
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+    }
+
+    /**
+     * Hand a notification to the pipeline; returns false when it was dropped
+     */
+    public boolean enqueue(NotificationRequest request) {
+        if (request.isPositionUpdate()) {
+            return enqueuePositionUpdate(request);
+        }
+
+        if (request.ticketId() != null) {
+            takePositionUpdate(request.ticketId());
+        }
+        try {
+            if (queue.offer(request, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                enqueued.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.incrementAndGet();
+        log.warn("Notification pipeline full, dropped {} for user {}", request.type(), request.userId());
+        return false;
+    }
+
+    /**
+     * Write everything currently queued, in batches
+     */
+    @Scheduled(fixedDelayString = "${notifications.pipeline.flush-interval:200}")
+    public void flush() {
+        List<NotificationRequest> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+
+        Iterator<Long> tickets = positionUpdates.keySet().iterator();
+        while (tickets.hasNext()) {
+            NotificationRequest request = takePositionUpdate(tickets.next());
+            if (request != null && queueEngine.isWaiting(request.ticketId())) {
+                batch.add(request);
+            }
+            if (batch.size() == batchSize) {
+                write(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public int getPendingPositionUpdates() {
+        return pendingPositionUpdates.get();
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getMerged() {
+        return merged.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Merge into the ticket's pending update; a new ticket takes a slot only if one is free
+     */
+    private boolean enqueuePositionUpdate(NotificationRequest request) {
+        boolean[] accepted = {true};
+        positionUpdates.compute(request.ticketId(), (ticketId, pending) -> {
+            if (pending != null) {
+                merged.incrementAndGet();
+                return request;
+            }
+            if (pendingPositionUpdates.incrementAndGet() > positionUpdateCapacity) {
+                pendingPositionUpdates.decrementAndGet();
+                accepted[0] = false;
+                return null;
+            }
+            return request;
+        });
+
+        if (!accepted[0]) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    private NotificationRequest takePositionUpdate(Long ticketId) {
+        NotificationRequest request = positionUpdates.remove(ticketId);
+        if (request != null) {
+            pendingPositionUpdates.decrementAndGet();
+        }
+        return request;
+    }
+
+    private void write(List<NotificationRequest> batch) {
+        boolean[] inserted = new boolean[batch.size()];
+        batch.forEach(request -> unreadCounters.begin(request.userId()));
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream().map(NotificationPipeline::toRow).toList());
+            Arrays.fill(inserted, true);
+            LogHelper.logDatabaseOperation(log, "INSERT Notifications (batch)", batch.size() + " rows");
+        } catch (DataAccessException e) {
+            // e.g. a ticket or user deleted in the meantime: retry row by row, skipping the failing ones
+            LogHelper.logError(log, "write notification batch", e, batch.size() + " rows");
+            for (int i = 0; i < batch.size(); i++) {
+                inserted[i] = writeOne(batch.get(i));
+            }
+        } finally {
+            for (int i = 0; i < batch.size(); i++) {
+                unreadCounters.complete(batch.get(i).userId(), inserted[i] ? 1 : 0);
+            }
+        }
+
+        Map<Long, List<NotificationRequest>> delivered = new LinkedHashMap<>();
+        long count = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (inserted[i]) {
+                delivered.computeIfAbsent(batch.get(i).userId(), id -> new ArrayList<>()).add(batch.get(i));
+                count++;
+            }
+        }
+        written.addAndGet(count);
+        systemCounters.adjustNotifications(count);
+        delivered.forEach((userId, notifications) -> eventPublisher.publishEvent(
+                new NotificationsDeliveredEvent(userId, notifications, unreadCounters.get(userId))));
+    }
+
+    private boolean writeOne(NotificationRequest request) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, toRow(request));
+            return true;
+        } catch (DataAccessException e) {
+            failed.incrementAndGet();
+            log.warn("Dropped notification {} for user {}: {}", request.type(), request.userId(),
+                    e.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+
+    private static Object[] toRow(NotificationRequest request) {
+        return new Object[] {
+            request.userId(),
+            request.ticketId(),
+            request.establishmentId(),
+            request.type().name(),
+            request.title(),
+            request.message(),
+            Timestamp.valueOf(request.createdAt())
+        };
+    }
+}
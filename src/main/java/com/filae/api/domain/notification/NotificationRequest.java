@@ -0,0 +1,25 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.entity.Notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification waiting in the pipeline to be written
+ *
+ * @param ticketId        related queue entry, or null
+ * @param establishmentId related establishment, or null
+ */
+public record NotificationRequest(
+        Long userId,
+        Long ticketId,
+        Long establishmentId,
+        Notification.NotificationType type,
+        String title,
+        String message,
+        LocalDateTime createdAt) {
+
+    public boolean isPositionUpdate() {
+        return type == Notification.NotificationType.POSITION_UPDATE;
+    }
+}
@@ -0,0 +1,163 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.stats.SystemCounters;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduled retention and compaction of the notifications table.
+ *
+ * Each run deletes read notifications older than the TTL and collapses
+ * POSITION_UPDATE notifications of a ticket into the latest one. Deletes are
+ * done in small batches, each in its own transaction, claiming rows with
+ * SKIP LOCKED so user requests and other nodes are never blocked; an optional
+ * pause between batches throttles the delete rate.
+ */
+@Component
+public class NotificationRetention {
+
+    private static final Logger log = LogHelper.getLogger(NotificationRetention.class);
+
+    private static final String PURGE_READ_SQL =
+            "DELETE FROM notifications WHERE id IN (" +
+            "  SELECT id FROM notifications WHERE is_read = TRUE AND created_at < ? " +
+            "  ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING user_id, is_read";
+
+    private static final String COMPACT_POSITION_UPDATES_SQL =
+            "DELETE FROM notifications WHERE id IN (" +
+            "  SELECT n.id FROM notifications n " +
+            "  WHERE n.type = 'POSITION_UPDATE' AND n.ticket_id IS NOT NULL " +
+            "  AND EXISTS (SELECT 1 FROM notifications newer WHERE newer.ticket_id = n.ticket_id " +
+            "              AND newer.type = 'POSITION_UPDATE' AND newer.id > n.id) " +
+            "  LIMIT ? FOR UPDATE OF n SKIP LOCKED) " +
+            "RETURNING user_id, is_read";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SystemCounters systemCounters;
+    private final UnreadNotificationCounters unreadCounters;
+    private final boolean enabled;
+    private final Duration readTtl;
+    private final int batchSize;
+    private final int maxBatches;
+    private final long pauseMillis;
+
+    private volatile RetentionRun lastRun;
+    private final AtomicLong totalPurged = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+
+    public NotificationRetention(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 SystemCounters systemCounters,
+                                 UnreadNotificationCounters unreadCounters,
+                                 @Value("${notifications.retention.enabled:true}") boolean enabled,
+                                 @Value("${notifications.retention.read-ttl-days:30}") int readTtlDays,
+                                 @Value("${notifications.retention.batch-size:500}") int batchSize,
+                                 @Value("${notifications.retention.max-batches:100}") int maxBatches,
+                                 @Value("${notifications.retention.pause:50}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.systemCounters = systemCounters;
+        this.unreadCounters = unreadCounters;
+        this.enabled = enabled;
+        this.readTtl = Duration.ofDays(readTtlDays);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * Purge and compact, up to max-batches delete statements per run
+     */
+    @Scheduled(fixedDelayString = "${notifications.retention.interval:900000}",
+               initialDelayString = "${notifications.retention.initial-delay:120000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        LogHelper.logMethodEntry(log, "notificationRetention");
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Timestamp cutoff = Timestamp.valueOf(startedAt.minus(readTtl));
+        int[] batches = {0};
+        long readPurged = 0;
+        long compacted = 0;
+        try {
+            readPurged = deleteInBatches(PURGE_READ_SQL, batches, cutoff, batchSize);
+            compacted = deleteInBatches(COMPACT_POSITION_UPDATES_SQL, batches, batchSize);
+        } catch (DataAccessException e) {
+            LogHelper.logError(log, "notification retention", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        RetentionRun run = new RetentionRun(startedAt, Duration.between(startedAt, LocalDateTime.now()).toMillis(),
+                readPurged, compacted, batches[0]);
+        lastRun = run;
+        runs.incrementAndGet();
+        totalPurged.addAndGet(run.purged());
+
+        LogHelper.logDatabaseOperation(log, "DELETE Notifications (retention)",
+                "read=" + readPurged + ", compacted=" + compacted);
+        LogHelper.logMethodExit(log, "notificationRetention", run.purged() + " purged");
+    }
+
+    /**
+     * Most recent run, null before the first one
+     */
+    public RetentionRun getLastRun() {
+        return lastRun;
+    }
+
+    public long getTotalPurged() {
+        return totalPurged.get();
+    }
+
+    public long getRuns() {
+        return runs.get();
+    }
+
+    private long deleteInBatches(String sql, int[] batches, Object... params) throws InterruptedException {
+        long deleted = 0;
+        while (batches[0] < maxBatches) {
+            Set<Long> unreadUsers = new HashSet<>();
+            Integer rows = transactionTemplate.execute(status -> jdbcTemplate.query(sql, rs -> {
+                int count = 0;
+                while (rs.next()) {
+                    count++;
+                    if (!rs.getBoolean(2)) {
+                        unreadUsers.add(rs.getLong(1));
+                    }
+                }
+                return count;
+            }, params));
+            batches[0]++;
+            deleted += rows;
+            systemCounters.adjustNotifications(-rows);
+            // Superseded position updates may have been unread
+            unreadUsers.forEach(unreadCounters::invalidate);
+            if (rows < batchSize) {
+                break;
+            }
+            if (pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+        return deleted;
+    }
+}
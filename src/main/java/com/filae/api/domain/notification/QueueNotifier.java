@@ -0,0 +1,78 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.entity.Notification.NotificationType;
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Turns committed queue changes into user notifications.
+ *
+ * Runs after commit (so rolled back changes never notify anyone) and only
+ * enqueues into the NotificationPipeline. When a waiting entry leaves the
+ * queue, everyone who was behind it gets a POSITION_UPDATE with their new
+ * place, which the pipeline merges per ticket.
+ */
+@Component
+public class QueueNotifier {
+
+    private final NotificationPipeline pipeline;
+    private final QueueEngine queueEngine;
+    private final boolean positionUpdates;
+
+    public QueueNotifier(NotificationPipeline pipeline,
+                         QueueEngine queueEngine,
+                         @Value("${notifications.position-updates:true}") boolean positionUpdates) {
+        this.pipeline = pipeline;
+        this.queueEngine = queueEngine;
+        this.positionUpdates = positionUpdates;
+    }
+
+    @TransactionalEventListener
+    public void onQueueStatusChanged(QueueStatusChangedEvent event) {
+        QueueSnapshot ticket = event.ticket();
+
+        switch (ticket.status()) {
+            case WAITING -> notify(ticket, NotificationType.QUEUE_JOINED, "You joined the queue",
+                    String.format("Ticket %s at %s. You are number %d in line (about %d min).",
+                            ticket.ticketNumber(), ticket.establishmentName(),
+                            ticket.position(), ticket.estimatedWaitTime()));
+            case CALLED -> notify(ticket, NotificationType.QUEUE_CALLED, "It's your turn!",
+                    String.format("Ticket %s has been called at %s.", ticket.ticketNumber(), ticket.establishmentName()));
+            case CANCELLED -> notify(ticket, NotificationType.QUEUE_CANCELLED, "Queue entry cancelled",
+                    String.format("Ticket %s at %s was cancelled.", ticket.ticketNumber(), ticket.establishmentName()));
+            default -> {
+            }
+        }
+
+        if (positionUpdates && event.previousStatus() == Queue.QueueStatus.WAITING) {
+            notifyPositionsBehind(ticket);
+        }
+    }
+
+    /**
+     * POSITION_UPDATE for every waiting entry that moved up after an entry left
+     */
+    private void notifyPositionsBehind(QueueSnapshot departed) {
+        // Runs after the engine dropped the departed entry, so positions are already the new ones
+        for (QueueSnapshot entry : queueEngine.getWaiting(departed.establishmentId())) {
+            if (entry.sequenceNumber() < departed.sequenceNumber()) {
+                continue;
+            }
+            notify(entry, NotificationType.POSITION_UPDATE, "Queue position updated",
+                    String.format("You are now number %d at %s (about %d min).",
+                            entry.position(), entry.establishmentName(), entry.estimatedWaitTime()));
+        }
+    }
+
+    private void notify(QueueSnapshot ticket, NotificationType type, String title, String message) {
+        pipeline.enqueue(new NotificationRequest(ticket.userId(), ticket.id(), ticket.establishmentId(),
+                type, title, message, LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.filae.api.domain.notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one notification retention run
+ *
+ * @param readPurged   read notifications deleted for being past their TTL
+ * @param compacted    POSITION_UPDATE notifications deleted for being superseded
+ * @param batches      delete statements executed
+ */
+public record RetentionRun(
+        LocalDateTime startedAt,
+        long durationMillis,
+        long readPurged,
+        long compacted,
+        int batches) {
+
+    public long purged() {
+        return readPurged + compacted;
+    }
+}
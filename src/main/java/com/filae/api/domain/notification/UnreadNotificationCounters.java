@@ -0,0 +1,143 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.repository.NotificationRepository;
+import com.filae.api.infrastructure.cache.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user unread notification counts held in a bounded cache.
+ *
+ * A miss is loaded with a COUNT query; afterwards every write that changes a
+ * user's unread rows applies its delta once it is committed. Writers announce
+ * themselves with begin() before touching the database and report with
+ * complete() afterwards. A count loaded while a write for the same user (stripe)
+ * was in flight is returned but not cached, since it may or may not include
+ * that write; loads and deltas for a user are serialized on the cache entry.
+ * Bulk deletes whose delta is unknown invalidate the user instead.
+ */
+@Component
+public class UnreadNotificationCounters {
+
+    private static final int STRIPES = 256;
+
+    private final NotificationRepository notificationRepository;
+    private final Cache<Long, AtomicLong> counts;
+
+    private final AtomicInteger[] inFlight = new AtomicInteger[STRIPES];
+    private final AtomicLong[] versions = new AtomicLong[STRIPES];
+
+    public UnreadNotificationCounters(NotificationRepository notificationRepository,
+                                      CacheMetrics cacheMetrics,
+                                      @Value("${notifications.unread-cache.max-size:100000}") long maxSize,
+                                      @Value("${notifications.unread-cache.idle-timeout:3600000}") long idleTimeoutMillis) {
+        this.notificationRepository = notificationRepository;
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMillis(idleTimeoutMillis))
+                .recordStats()
+                .build();
+        cacheMetrics.register("unread-notifications", counts);
+        for (int i = 0; i < STRIPES; i++) {
+            inFlight[i] = new AtomicInteger();
+            versions[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Current unread count of a user
+     */
+    public long get(Long userId) {
+        AtomicLong cached = counts.getIfPresent(userId);
+        if (cached != null) {
+            return cached.get();
+        }
+
+        int stripe = stripe(userId);
+        long version = versions[stripe].get();
+        boolean quiet = inFlight[stripe].get() == 0;
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+
+        AtomicLong stored = counts.asMap().compute(userId, (id, current) -> {
+            if (current != null) {
+                return current;
+            }
+            return quiet && inFlight[stripe].get() == 0 && versions[stripe].get() == version
+                    ? new AtomicLong(count) : null;
+        });
+        return stored != null ? stored.get() : count;
+    }
+
+    /**
+     * Announce a write that may change a user's unread count
+     */
+    public void begin(Long userId) {
+        inFlight[stripe(userId)].incrementAndGet();
+    }
+
+    /**
+     * Finish a write announced with begin(), applying its delta (0 when rolled back)
+     */
+    public void complete(Long userId, long delta) {
+        int stripe = stripe(userId);
+        counts.asMap().compute(userId, (id, current) -> {
+            if (current != null && delta != 0) {
+                current.set(Math.max(0, current.get() + delta));
+            }
+            versions[stripe].incrementAndGet();
+            inFlight[stripe].decrementAndGet();
+            return current;
+        });
+    }
+
+    /**
+     * Drop a user's cached count (after writes whose delta is unknown)
+     */
+    public void invalidate(Long userId) {
+        int stripe = stripe(userId);
+        counts.asMap().compute(userId, (id, current) -> {
+            versions[stripe].incrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * Track a change to a user's unread count made in the current transaction:
+     * begin() now, complete() with the accumulated delta once the transaction ends
+     */
+    public Change track(Long userId) {
+        begin(userId);
+        Change change = new Change();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(userId, status == STATUS_COMMITTED ? change.delta : 0);
+            }
+        });
+        return change;
+    }
+
+    private static int stripe(Long userId) {
+        return Math.floorMod(userId.hashCode(), STRIPES);
+    }
+
+    /**
+     * Delta accumulated by a tracked transaction
+     */
+    public static final class Change {
+
+        private long delta;
+
+        public void add(long amount) {
+            delta += amount;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.filae.api.domain.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param items      entries of this page, in listing order
+ * @param nextCursor opaque cursor of the page after this one, null on the last page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Same page with its items converted
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+}
@@ -0,0 +1,33 @@
+package com.filae.api.domain.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default and maximum page size of paginated listings
+ */
+@Component
+public class PageSizes {
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PageSizes(@Value("${pagination.default-size:50}") int defaultSize,
+                     @Value("${pagination.max-size:200}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Page size to use for a requested limit: the default when absent, capped at the maximum
+     */
+    public int resolve(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,115 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ticket numbers from a per-establishment daily counter, e.g. TA7-261018-042.
+ *
+ * The format is name prefix + establishment id (base 36), the date and the
+ * day's sequence, so numbers are unique by construction. Counters live in
+ * memory and are seeded from today's tickets on startup; a new day starts
+ * from zero without touching the database.
+ *
+ * With distributed locking another node may have issued numbers, so the
+ * counter is re-seeded from the database (under the advisory lock) instead.
+ */
+@Component
+@ConditionalOnProperty(name = "queue.tickets.generator", havingValue = "daily-counter", matchIfMissing = true)
+public class DailyCounterTicketNumberGenerator implements TicketNumberGenerator, SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(DailyCounterTicketNumberGenerator.class);
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
+
+    private static final String SEED_ALL_SQL =
+            "SELECT establishment_id, ticket_number FROM queues WHERE joined_at >= ? AND ticket_number LIKE ?";
+
+    private static final String SEED_ONE_SQL = SEED_ALL_SQL + " AND establishment_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EstablishmentLocks establishmentLocks;
+
+    private final Map<Long, DailyCounter> counters = new ConcurrentHashMap<>();
+
+    public DailyCounterTicketNumberGenerator(JdbcTemplate jdbcTemplate, EstablishmentLocks establishmentLocks) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.establishmentLocks = establishmentLocks;
+    }
+
+    /**
+     * Seed today's counters from tickets already issued
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDate today = LocalDate.now();
+        String day = today.format(DAY_FORMAT);
+
+        jdbcTemplate.query(SEED_ALL_SQL, rs -> {
+            counter(rs.getLong(1), day).seed(sequenceOf(rs.getString(2)));
+        }, Timestamp.valueOf(today.minusDays(1).atStartOfDay()), "%-" + day + "-%");
+
+        LogHelper.logOperation(log, "Ticket counters seeded", "day=" + day, "establishments=" + counters.size());
+    }
+
+    @Override
+    public String next(Long establishmentId, String establishmentName) {
+        LocalDate today = LocalDate.now();
+        String day = today.format(DAY_FORMAT);
+        DailyCounter counter = counter(establishmentId, day);
+
+        if (establishmentLocks.isDistributed()) {
+            jdbcTemplate.query(SEED_ONE_SQL, rs -> {
+                counter.seed(sequenceOf(rs.getString(2)));
+            }, Timestamp.valueOf(today.minusDays(1).atStartOfDay()), "%-" + day + "-%", establishmentId);
+        }
+
+        return TicketNumberGenerator.namePrefix(establishmentName)
+                + Long.toString(establishmentId, Character.MAX_RADIX).toUpperCase()
+                + "-" + day + "-" + String.format("%03d", counter.next());
+    }
+
+    private DailyCounter counter(Long establishmentId, String day) {
+        return counters.compute(establishmentId,
+                (id, current) -> current != null && current.day.equals(day) ? current : new DailyCounter(day));
+    }
+
+    private static int sequenceOf(String ticketNumber) {
+        try {
+            return Integer.parseInt(ticketNumber.substring(ticketNumber.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Last sequence issued by an establishment on a given day
+     */
+    private static final class DailyCounter {
+
+        private final String day;
+        private int last;
+
+        DailyCounter(String day) {
+            this.day = day;
+        }
+
+        synchronized void seed(int issued) {
+            last = Math.max(last, issued);
+        }
+
+        synchronized int next() {
+            return ++last;
+        }
+    }
+}
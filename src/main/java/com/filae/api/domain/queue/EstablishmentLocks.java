@@ -0,0 +1,103 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-establishment serialization of queue state changes.
+ *
+ * Uses a fixed set of striped in-JVM locks, so changes to different
+ * establishments only contend when they hash to the same stripe. When
+ * distributed locking is enabled a Postgres transaction-level advisory lock is
+ * also taken, serializing the same establishment across nodes.
+ *
+ * Locks are held until the surrounding transaction completes, i.e. after the
+ * queue engine has applied its after-commit updates.
+ */
+@Component
+public class EstablishmentLocks {
+
+    private static final Logger log = LogHelper.getLogger(EstablishmentLocks.class);
+
+    /**
+     * High bits of the advisory lock key, reserved for queue serialization
+     */
+    private static final long ADVISORY_LOCK_NAMESPACE = 0x46514C4BL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+    private final boolean distributed;
+
+    public EstablishmentLocks(JdbcTemplate jdbcTemplate,
+                              @Value("${queue.locking.stripes:64}") int stripes,
+                              @Value("${queue.locking.timeout:5000}") long timeoutMillis,
+                              @Value("${queue.locking.distributed:false}") boolean distributed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.distributed = distributed;
+    }
+
+    /**
+     * Lock an establishment's queue for the rest of the current transaction
+     */
+    public void lockForTransaction(Long establishmentId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Queue locks require an active transaction");
+        }
+
+        ReentrantLock lock = stripes[Math.floorMod(establishmentId.hashCode(), stripes.length)];
+        acquire(lock, establishmentId);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+
+        if (distributed) {
+            jdbcTemplate.queryForObject("SELECT 1 FROM (SELECT pg_advisory_xact_lock(?)) AS l",
+                    Integer.class, advisoryLockKey(establishmentId));
+        }
+    }
+
+    /**
+     * Whether queue changes are also serialized across nodes
+     */
+    public boolean isDistributed() {
+        return distributed;
+    }
+
+    /**
+     * Single bigint advisory key for an establishment: the whole id, with the
+     * namespace mixed into the high bits so distinct ids never share a lock
+     */
+    static long advisoryLockKey(Long establishmentId) {
+        return (ADVISORY_LOCK_NAMESPACE << 32) ^ establishmentId;
+    }
+
+    private void acquire(ReentrantLock lock, Long establishmentId) {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for queue lock: establishment={}", establishmentId);
+                throw new IllegalStateException("Queue is busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for queue lock", e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.filae.api.domain.queue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered WAITING list of a single establishment.
+ *
+ * Entries are appended to consecutive slots and a Fenwick tree over the slots
+ * counts live entries, so rank (position) lookups and removals are O(log n)
+ * and the head is O(1). Removed slots are reclaimed by compacting when the
+ * slot array fills up. All methods are guarded by this instance's monitor,
+ * which serializes work per establishment only.
+ */
+final class EstablishmentQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Long, Integer> slotByTicket = new HashMap<>();
+    private QueueSnapshot[] slots = new QueueSnapshot[INITIAL_CAPACITY];
+    private int[] tree = new int[INITIAL_CAPACITY + 1];
+    private int head;
+    private int tail;
+    private int size;
+
+    /**
+     * Append an entry at the end of the queue
+     */
+    synchronized void append(QueueSnapshot entry) {
+        if (slotByTicket.containsKey(entry.id())) {
+            return;
+        }
+        if (tail == slots.length) {
+            resize();
+        }
+        slots[tail] = entry;
+        slotByTicket.put(entry.id(), tail);
+        add(tail, 1);
+        tail++;
+        size++;
+    }
+
+    /**
+     * Remove an entry, returning it or null when not present
+     */
+    synchronized QueueSnapshot remove(Long ticketId) {
+        Integer slot = slotByTicket.remove(ticketId);
+        if (slot == null) {
+            return null;
+        }
+        QueueSnapshot removed = slots[slot];
+        slots[slot] = null;
+        add(slot, -1);
+        size--;
+        while (head < tail && slots[head] == null) {
+            head++;
+        }
+        return removed;
+    }
+
+    /**
+     * First entry in the queue, or null when empty
+     */
+    synchronized QueueSnapshot peek() {
+        return size == 0 ? null : slots[head];
+    }
+
+    /**
+     * 1-based position of a ticket, or 0 when not present
+     */
+    synchronized int positionOf(Long ticketId) {
+        Integer slot = slotByTicket.get(ticketId);
+        return slot == null ? 0 : prefixSum(slot);
+    }
+
+    /**
+     * Entry stored for a ticket, or null when not present
+     */
+    synchronized QueueSnapshot get(Long ticketId) {
+        Integer slot = slotByTicket.get(ticketId);
+        return slot == null ? null : slots[slot];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * All entries in queue order
+     */
+    synchronized List<QueueSnapshot> entries() {
+        List<QueueSnapshot> entries = new ArrayList<>(size);
+        for (int i = head; i < tail; i++) {
+            if (slots[i] != null) {
+                entries.add(slots[i]);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Compact live entries to the front, growing the arrays when more than half full
+     */
+    private void resize() {
+        int capacity = size * 2 >= slots.length ? slots.length * 2 : slots.length;
+        QueueSnapshot[] compacted = new QueueSnapshot[capacity];
+        int next = 0;
+        for (int i = head; i < tail; i++) {
+            if (slots[i] != null) {
+                compacted[next] = slots[i];
+                slotByTicket.put(slots[i].id(), next);
+                next++;
+            }
+        }
+        slots = compacted;
+        head = 0;
+        tail = next;
+        rebuildTree(capacity);
+    }
+
+    /**
+     * Linear-time Fenwick tree construction over the live slots
+     */
+    private void rebuildTree(int capacity) {
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            if (slots[i - 1] != null) {
+                tree[i] += 1;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void add(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private int prefixSum(int slot) {
+        int sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,75 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.infrastructure.cache.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Bounded, expiring record of the Idempotency-Key sent with each join.
+ *
+ * Keys are scoped to the user and map to the ticket the first request created,
+ * so a retried join returns that ticket instead of creating another one.
+ * Entries are only recorded after the join commits. The key is also stored on
+ * the queue entry, where QueueService looks it up on a miss when joins may be
+ * taken by other nodes.
+ */
+@Component
+public class JoinIdempotencyKeys {
+
+    /**
+     * Longest key accepted from clients
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, JoinedTicket> keys;
+    private final Duration ttl;
+
+    public JoinIdempotencyKeys(CacheMetrics cacheMetrics,
+                               @Value("${queue.idempotency.max-size:100000}") long maxSize,
+                               @Value("${queue.idempotency.ttl:86400000}") long ttlMillis) {
+        this.ttl = Duration.ofMillis(ttlMillis);
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        cacheMetrics.register("idempotency-keys", keys);
+    }
+
+    /**
+     * Ticket created by an earlier join with the same key, if still remembered
+     */
+    public Optional<JoinedTicket> find(Long userId, String key) {
+        return Optional.ofNullable(keys.getIfPresent(scoped(userId, key)));
+    }
+
+    /**
+     * Remember the ticket a join created
+     */
+    public void record(Long userId, String key, JoinedTicket ticket) {
+        keys.put(scoped(userId, key), ticket);
+    }
+
+    /**
+     * Oldest join whose key still returns its ticket
+     */
+    public LocalDateTime validSince() {
+        return LocalDateTime.now().minus(ttl);
+    }
+
+    private static String scoped(Long userId, String key) {
+        return userId + ":" + key;
+    }
+
+    /**
+     * Ticket created for a key, with the establishment it was created for
+     */
+    public record JoinedTicket(Long ticketId, Long establishmentId) {
+    }
+}
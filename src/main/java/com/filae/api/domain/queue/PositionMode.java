@@ -0,0 +1,17 @@
+package com.filae.api.domain.queue;
+
+/**
+ * How queue placements (position, total, estimated wait) are kept in the database
+ */
+public enum PositionMode {
+
+    /**
+     * Placements are ranked by sequence number at read time; a state change is a single-row UPDATE
+     */
+    DERIVED,
+
+    /**
+     * Placements are also copied to the queues table by the write-behind writer
+     */
+    MATERIALIZED
+}
@@ -0,0 +1,141 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves terminal (FINISHED/CANCELLED) queue entries that have not changed for
+ * a while from queues to the monthly-partitioned queues_archive table, so the
+ * live table and its indexes only hold recent rows.
+ *
+ * Works in small batches, each in its own short transaction that deletes and
+ * inserts in one statement; rows are claimed with SKIP LOCKED, so several
+ * nodes can run the archiver at the same time. Reads that need the full
+ * history go through the queue_history view.
+ */
+@Component
+public class QueueArchiver {
+
+    private static final Logger log = LogHelper.getLogger(QueueArchiver.class);
+
+    private static final String COLUMNS =
+            "id, ticket_number, establishment_id, merchant_id, user_id, party_size, notes, sequence_number, " +
+            "position, total_in_queue, status, estimated_wait_time, " +
+            "joined_at, called_at, finished_at, cancelled_at, created_at, updated_at";
+
+    private static final String OLDEST_CANDIDATE_SQL =
+            "SELECT MIN(joined_at) FROM queues WHERE status IN ('FINISHED', 'CANCELLED') AND updated_at < ?";
+
+    private static final String MOVE_BATCH_SQL =
+            "WITH batch AS (" +
+            "  SELECT id FROM queues WHERE status IN ('FINISHED', 'CANCELLED') AND updated_at < ? " +
+            "  ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED" +
+            "), moved AS (" +
+            "  DELETE FROM queues q USING batch WHERE q.id = batch.id " +
+            "  RETURNING q.id, q.ticket_number, q.establishment_id, q.merchant_id, q.user_id, q.party_size, " +
+            "  q.notes, q.sequence_number, q.position, q.total_in_queue, q.status, q.estimated_wait_time, " +
+            "  COALESCE(q.joined_at, q.created_at, q.updated_at) AS joined_at, q.called_at, q.finished_at, " +
+            "  q.cancelled_at, q.created_at, q.updated_at" +
+            ") " +
+            "INSERT INTO queues_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final int maxBatches;
+
+    private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+
+    public QueueArchiver(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${queue.archive.enabled:true}") boolean enabled,
+                         @Value("${queue.archive.min-age-days:30}") int minAgeDays,
+                         @Value("${queue.archive.batch-size:500}") int batchSize,
+                         @Value("${queue.archive.max-batches:200}") int maxBatches) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        // Today's tickets seed the ticket counters, so nothing younger than a day is archived
+        this.minAgeDays = Math.max(1, minAgeDays);
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * Archive eligible entries, up to max-batches batches per run
+     */
+    @Scheduled(fixedDelayString = "${queue.archive.interval:3600000}",
+               initialDelayString = "${queue.archive.initial-delay:300000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LogHelper.logMethodEntry(log, "archive");
+
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(minAgeDays));
+        long archived = 0;
+        try {
+            Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_CANDIDATE_SQL, Timestamp.class, cutoff);
+            if (oldest == null) {
+                LogHelper.logMethodExit(log, "archive", "nothing to archive");
+                return;
+            }
+            ensurePartitions(YearMonth.from(oldest.toLocalDateTime()), YearMonth.from(cutoff.toLocalDateTime()));
+
+            for (int batch = 0; batch < maxBatches; batch++) {
+                Integer moved = transactionTemplate.execute(status ->
+                        jdbcTemplate.update(MOVE_BATCH_SQL, cutoff, batchSize));
+                archived += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            LogHelper.logError(log, "archive queue entries", e, "archived=" + archived);
+            return;
+        }
+
+        LogHelper.logDatabaseOperation(log, "MOVE Queue to queues_archive", archived + " rows");
+        LogHelper.logMethodExit(log, "archive", archived + " archived");
+    }
+
+    /**
+     * Create the monthly partitions rows may be archived into (bounds padded
+     * by a month to absorb time zone differences); rows without a partition
+     * land in the default one
+     */
+    private void ensurePartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from.minusMonths(1); !month.isAfter(to.plusMonths(1)); month = month.plusMonths(1)) {
+            if (partitions.contains(month)) {
+                continue;
+            }
+            String sql = String.format(
+                    "CREATE TABLE IF NOT EXISTS queues_archive_y%dm%02d PARTITION OF queues_archive " +
+                    "FOR VALUES FROM ('%s') TO ('%s')",
+                    month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1));
+            try {
+                jdbcTemplate.execute(sql);
+                partitions.add(month);
+            } catch (DataAccessException e) {
+                // Typically the default partition already holds rows for this month
+                log.warn("Could not create archive partition for {}: {}", month, e.getMostSpecificCause().getMessage());
+                partitions.add(month);
+            }
+        }
+    }
+}
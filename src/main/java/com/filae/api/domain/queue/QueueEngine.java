@@ -0,0 +1,208 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.repository.QueueRepository;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resident, per-establishment ordered queue structure.
+ *
+ * Holds every WAITING entry in memory, ordered by its immutable sequence
+ * number, and answers position, length and next-ticket without touching the
+ * database. Placements are ranks computed at read time, with wait times from
+ * the WaitTimeEstimator. It is rebuilt from Postgres on startup and kept
+ * current by QueueService after each committed change.
+ */
+@Component
+public class QueueEngine implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(QueueEngine.class);
+
+    private final QueueRepository queueRepository;
+    private final WaitTimeEstimator waitTimeEstimator;
+
+    private final Map<Long, EstablishmentQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Long, Long> establishmentByTicket = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> ticketsByUser = new ConcurrentHashMap<>();
+
+    public QueueEngine(QueueRepository queueRepository, WaitTimeEstimator waitTimeEstimator) {
+        this.queueRepository = queueRepository;
+        this.waitTimeEstimator = waitTimeEstimator;
+    }
+
+    /**
+     * Load the engine before the web server starts accepting requests
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild all queues from the database
+     */
+    public void rebuild() {
+        LogHelper.logMethodEntry(log, "rebuild");
+
+        List<Queue> waiting = queueRepository.findByStatusWithDetails(Queue.QueueStatus.WAITING);
+
+        queues.clear();
+        establishmentByTicket.clear();
+        ticketsByUser.clear();
+        waiting.forEach(queue -> append(QueueSnapshot.from(queue)));
+
+        LogHelper.logOperation(log, "Queue engine loaded",
+            "establishments=" + queues.size(), "waiting=" + waiting.size());
+        LogHelper.logMethodExit(log, "rebuild");
+    }
+
+    /**
+     * Add a WAITING entry at the end of its establishment's queue
+     */
+    public void append(QueueSnapshot entry) {
+        establishmentByTicket.put(entry.id(), entry.establishmentId());
+        ticketsByUser.computeIfAbsent(entry.userId(), id -> ConcurrentHashMap.newKeySet()).add(entry.id());
+        queues.computeIfAbsent(entry.establishmentId(), id -> new EstablishmentQueue()).append(entry);
+    }
+
+    /**
+     * Remove an entry from its queue, returning it when it was waiting
+     */
+    public Optional<QueueSnapshot> remove(Long ticketId) {
+        Long establishmentId = establishmentByTicket.remove(ticketId);
+        if (establishmentId == null) {
+            return Optional.empty();
+        }
+
+        QueueSnapshot removed = queues.get(establishmentId).remove(ticketId);
+        if (removed != null) {
+            Set<Long> userTickets = ticketsByUser.get(removed.userId());
+            if (userTickets != null) {
+                userTickets.remove(ticketId);
+            }
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    /**
+     * Next ticket to be called for an establishment
+     */
+    public Optional<QueueSnapshot> peek(Long establishmentId) {
+        EstablishmentQueue queue = queues.get(establishmentId);
+        return queue == null ? Optional.empty() : Optional.ofNullable(queue.peek());
+    }
+
+    /**
+     * Number of WAITING entries for an establishment
+     */
+    public int length(Long establishmentId) {
+        EstablishmentQueue queue = queues.get(establishmentId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Waiting entry with its current placement
+     */
+    public Optional<QueueSnapshot> find(Long ticketId) {
+        Long establishmentId = establishmentByTicket.get(ticketId);
+        if (establishmentId == null) {
+            return Optional.empty();
+        }
+
+        EstablishmentQueue queue = queues.get(establishmentId);
+        synchronized (queue) {
+            QueueSnapshot entry = queue.get(ticketId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            int position = queue.positionOf(ticketId);
+            return Optional.of(entry.withPlacement(position, queue.size(), estimateWaitTime(establishmentId, position)));
+        }
+    }
+
+    /**
+     * Snapshot with its live placement when it is still waiting, unchanged otherwise
+     */
+    public QueueSnapshot withCurrentPlacement(QueueSnapshot snapshot) {
+        if (snapshot.status() != Queue.QueueStatus.WAITING) {
+            return snapshot;
+        }
+        return find(snapshot.id()).orElse(snapshot);
+    }
+
+    /**
+     * Whole WAITING list of an establishment, in order, with placements
+     */
+    public List<QueueSnapshot> getWaiting(Long establishmentId) {
+        EstablishmentQueue queue = queues.get(establishmentId);
+        if (queue == null) {
+            return Collections.emptyList();
+        }
+
+        List<QueueSnapshot> entries = queue.entries();
+        double minutesPerPosition = waitTimeEstimator.minutesPerPosition(establishmentId);
+        List<QueueSnapshot> placed = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            placed.add(entries.get(i).withPlacement(i + 1, entries.size(),
+                    WaitTimeEstimator.estimate(i + 1, minutesPerPosition)));
+        }
+        return placed;
+    }
+
+    /**
+     * WAITING entries of a user across all establishments
+     */
+    public List<QueueSnapshot> findWaitingByUser(Long userId) {
+        Set<Long> tickets = ticketsByUser.get(userId);
+        if (tickets == null) {
+            return Collections.emptyList();
+        }
+
+        List<QueueSnapshot> entries = new ArrayList<>(tickets.size());
+        for (Long ticketId : tickets) {
+            find(ticketId).ifPresent(entries::add);
+        }
+        return entries;
+    }
+
+    /**
+     * Whether a user is already waiting in an establishment's queue
+     */
+    public boolean isWaiting(Long userId, Long establishmentId) {
+        Set<Long> tickets = ticketsByUser.get(userId);
+        if (tickets == null) {
+            return false;
+        }
+        for (Long ticketId : tickets) {
+            if (establishmentId.equals(establishmentByTicket.get(ticketId))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a ticket is still waiting
+     */
+    public boolean isWaiting(Long ticketId) {
+        return establishmentByTicket.containsKey(ticketId);
+    }
+
+    /**
+     * Estimated wait time in minutes for a position in an establishment's queue
+     */
+    public int estimateWaitTime(Long establishmentId, int position) {
+        return WaitTimeEstimator.estimate(position, waitTimeEstimator.minutesPerPosition(establishmentId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.filae.api.domain.queue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a queue history listing ordered by (joined_at, id), newest first.
+ * Clients only see the encoded, opaque form.
+ */
+public record QueueHistoryCursor(LocalDateTime joinedAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Cursor pointing right after an entry
+     */
+    public static QueueHistoryCursor after(QueueSnapshot entry) {
+        return new QueueHistoryCursor(entry.joinedAt(), entry.id());
+    }
+
+    public String encode() {
+        String raw = joinedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client
+     */
+    public static QueueHistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new QueueHistoryCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.infrastructure.logging.LogHelper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind log for the materialized position columns.
+ *
+ * The queue engine is the source of truth for placements; in MATERIALIZED mode
+ * this writer copies them to the queues table in the background, coalescing
+ * every change to an establishment since the last flush into a single JDBC
+ * batch. In DERIVED mode placements are never written back.
+ */
+@Component
+public class QueuePositionWriter {
+
+    private static final Logger log = LogHelper.getLogger(QueuePositionWriter.class);
+
+    private static final String UPDATE_POSITION_SQL =
+            "UPDATE queues SET position = ?, total_in_queue = ?, estimated_wait_time = ? " +
+            "WHERE id = ? AND status = 'WAITING'";
+
+    private final QueueEngine queueEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final PositionMode mode;
+
+    private final Set<Long> dirtyEstablishments = ConcurrentHashMap.newKeySet();
+
+    public QueuePositionWriter(QueueEngine queueEngine,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${queue.positions.mode:derived}") PositionMode mode) {
+        this.queueEngine = queueEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+    }
+
+    /**
+     * Schedule an establishment's placements to be written (MATERIALIZED mode only)
+     */
+    public void markDirty(Long establishmentId) {
+        if (mode == PositionMode.MATERIALIZED) {
+            dirtyEstablishments.add(establishmentId);
+        }
+    }
+
+    /**
+     * Write placements for every establishment changed since the last flush
+     */
+    @Scheduled(fixedDelayString = "${queue.positions.flush-interval:1000}")
+    public void flush() {
+        Iterator<Long> iterator = dirtyEstablishments.iterator();
+        while (iterator.hasNext()) {
+            Long establishmentId = iterator.next();
+            iterator.remove();
+
+            try {
+                write(establishmentId);
+            } catch (Exception e) {
+                dirtyEstablishments.add(establishmentId);
+                LogHelper.logError(log, "flush queue positions", e, "establishment=" + establishmentId);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(Long establishmentId) {
+        List<QueueSnapshot> waiting = queueEngine.getWaiting(establishmentId);
+        if (waiting.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(waiting.size());
+        for (QueueSnapshot entry : waiting) {
+            batch.add(new Object[] {
+                entry.position(), entry.totalInQueue(), entry.estimatedWaitTime(), entry.id()
+            });
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_POSITION_SQL, batch);
+        LogHelper.logDatabaseOperation(log, "UPDATE Queue positions (write-behind)", establishmentId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.domain.entity.Queue;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, detached view of a queue entry held by the in-memory queue engine.
+ * Position, total and estimated wait are filled in at read time; the sequence
+ * number is the entry's fixed place in line.
+ */
+public record QueueSnapshot(
+        Long id,
+        String ticketNumber,
+        Long establishmentId,
+        String establishmentName,
+        Long merchantId,
+        Long userId,
+        String userName,
+        Integer partySize,
+        String notes,
+        Long sequenceNumber,
+        Integer position,
+        Integer totalInQueue,
+        Queue.QueueStatus status,
+        Integer estimatedWaitTime,
+        LocalDateTime joinedAt,
+        LocalDateTime calledAt,
+        LocalDateTime finishedAt) {
+
+    /**
+     * Build a snapshot from a loaded entity (establishment and user must be initialized)
+     */
+    public static QueueSnapshot from(Queue queue) {
+        return from(queue, queue.getEstablishment().getName());
+    }
+
+    /**
+     * Build a snapshot from an entity whose establishment may be an uninitialized reference
+     */
+    public static QueueSnapshot from(Queue queue, String establishmentName) {
+        return new QueueSnapshot(
+                queue.getId(),
+                queue.getTicketNumber(),
+                queue.getEstablishment().getId(),
+                establishmentName,
+                queue.getMerchantId(),
+                queue.getUser().getId(),
+                queue.getUser().getName(),
+                queue.getPartySize(),
+                queue.getNotes(),
+                queue.getSequenceNumber(),
+                queue.getPosition(),
+                queue.getTotalInQueue(),
+                queue.getStatus(),
+                queue.getEstimatedWaitTime(),
+                queue.getJoinedAt(),
+                queue.getCalledAt(),
+                queue.getFinishedAt()
+        );
+    }
+
+    /**
+     * Whether a user may follow this entry's updates: its owner or the establishment's merchant
+     */
+    public boolean isVisibleTo(Long userId) {
+        return userId != null && (userId.equals(this.userId) || userId.equals(merchantId));
+    }
+
+    /**
+     * Copy of this snapshot with the current placement in the queue
+     */
+    public QueueSnapshot withPlacement(int position, int totalInQueue, int estimatedWaitTime) {
+        return new QueueSnapshot(id, ticketNumber, establishmentId, establishmentName, merchantId,
+                userId, userName, partySize, notes, sequenceNumber, position, totalInQueue, status, estimatedWaitTime,
+                joinedAt, calledAt, finishedAt);
+    }
+}
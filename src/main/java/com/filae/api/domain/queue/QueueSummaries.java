@@ -0,0 +1,207 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.domain.entity.Queue.QueueStatus;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-establishment live queue summaries for listings, served from memory.
+ *
+ * Waiting counts come from the queue engine and the wait estimate from the
+ * WaitTimeEstimator's rolling averages; the only extra state kept here is the
+ * set of CALLED entries of each establishment, moved by committed status
+ * changes and periodically reconciled against the database. Summaries for a
+ * whole page of establishments are answered in one call without touching the
+ * database.
+ *
+ * Status changes reach this node after commit from QueueService and, in
+ * distributed mode, from other nodes through QueueChangeNotifications, so
+ * they may arrive out of order: a ticket called on one node and finished on
+ * another can be seen finished before it is seen called. Tickets that left
+ * CALLED are remembered until the reconcile after next, and a late "called"
+ * for them is ignored.
+ *
+ * The reconcile corrects anything missed, e.g. changes made by SQL or
+ * announced while the listener was disconnected. Changes applied while the
+ * database is being read are journaled and replayed on top of what was read;
+ * applying a change is idempotent, so one the read already saw is not
+ * counted twice.
+ */
+@Component
+public class QueueSummaries implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(QueueSummaries.class);
+
+    private static final String SELECT_CALLED_SQL = "SELECT establishment_id, id FROM queues WHERE status = 'CALLED'";
+
+    private final QueueEngine queueEngine;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Applying changes takes the read lock; swapping in reconciled state takes the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<Long, CalledTickets> called = new ConcurrentHashMap<>();
+    private volatile Queue<CalledChange> journal;
+
+    public QueueSummaries(QueueEngine queueEngine, JdbcTemplate jdbcTemplate) {
+        this.queueEngine = queueEngine;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+
+    /**
+     * Summary of one establishment's queue
+     */
+    public QueueSummary get(Long establishmentId) {
+        int waiting = queueEngine.length(establishmentId);
+        CalledTickets tickets = called.get(establishmentId);
+        return new QueueSummary(establishmentId, waiting, tickets == null ? 0 : tickets.count(),
+                queueEngine.estimateWaitTime(establishmentId, waiting + 1));
+    }
+
+    /**
+     * Summaries of several establishments, in the given order
+     */
+    public Map<Long, QueueSummary> get(Collection<Long> establishmentIds) {
+        Map<Long, QueueSummary> summaries = new LinkedHashMap<>();
+        for (Long establishmentId : establishmentIds) {
+            summaries.put(establishmentId, get(establishmentId));
+        }
+        return summaries;
+    }
+
+    /**
+     * Account for a committed status change (called after commit, on this node or from another one)
+     */
+    public void apply(QueueStatusChangedEvent event) {
+        boolean wasCalled = event.previousStatus() == QueueStatus.CALLED;
+        boolean isCalled = event.newStatus() == QueueStatus.CALLED;
+        if (wasCalled == isCalled) {
+            return;
+        }
+
+        CalledChange change = new CalledChange(event.establishmentId(), event.ticket().id(), isCalled);
+        lock.readLock().lock();
+        try {
+            Queue<CalledChange> pending = journal;
+            if (pending != null) {
+                pending.add(change);
+            }
+            change.applyTo(called);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reset the CALLED entries to the database's, correcting drift from
+     * changes made outside QueueService or missed from other nodes
+     */
+    @Scheduled(initialDelayString = "${stats.reconcile-interval:300000}",
+               fixedDelayString = "${stats.reconcile-interval:300000}")
+    public synchronized void reconcile() {
+        LogHelper.logMethodEntry(log, "reconcile");
+
+        lock.writeLock().lock();
+        try {
+            journal = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Map<Long, CalledTickets> loaded = new ConcurrentHashMap<>();
+            jdbcTemplate.query(SELECT_CALLED_SQL, rs -> {
+                tickets(loaded, rs.getLong(1)).load(rs.getLong(2));
+            });
+
+            lock.writeLock().lock();
+            try {
+                called.forEach((establishmentId, previous) -> tickets(loaded, establishmentId).rememberLeft(previous));
+                // Changes applied during the read, whether or not the read already saw them
+                journal.forEach(change -> change.applyTo(loaded));
+                called = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            LogHelper.logDatabaseOperation(log, "SELECT called queue entries (reconcile)", loaded.size());
+        } catch (Exception e) {
+            LogHelper.logError(log, "reconcile queue summaries", e);
+        } finally {
+            journal = null;
+        }
+
+        LogHelper.logMethodExit(log, "reconcile");
+    }
+
+    private static CalledTickets tickets(Map<Long, CalledTickets> called, Long establishmentId) {
+        return called.computeIfAbsent(establishmentId, id -> new CalledTickets());
+    }
+
+    /**
+     * A ticket entering or leaving the CALLED status
+     */
+    private record CalledChange(Long establishmentId, Long ticketId, boolean called) {
+
+        void applyTo(Map<Long, CalledTickets> state) {
+            tickets(state, establishmentId).apply(ticketId, called);
+        }
+    }
+
+    /**
+     * CALLED tickets of one establishment, and the tickets seen leaving CALLED
+     * since the previous reconcile (a ticket never returns to CALLED)
+     */
+    private static final class CalledTickets {
+
+        private final Set<Long> called = new HashSet<>();
+        private final Set<Long> left = new HashSet<>();
+        private Set<Long> leftBefore = Set.of();
+
+        synchronized int count() {
+            return called.size();
+        }
+
+        synchronized void apply(Long ticketId, boolean isCalled) {
+            if (!isCalled) {
+                called.remove(ticketId);
+                left.add(ticketId);
+            } else if (!left.contains(ticketId) && !leftBefore.contains(ticketId)) {
+                called.add(ticketId);
+            }
+        }
+
+        synchronized void load(Long ticketId) {
+            called.add(ticketId);
+        }
+
+        /**
+         * Keep ignoring late "called" changes for tickets the previous state saw leave
+         */
+        synchronized void rememberLeft(CalledTickets previous) {
+            synchronized (previous) {
+                leftBefore = Set.copyOf(previous.left);
+            }
+        }
+    }
+}
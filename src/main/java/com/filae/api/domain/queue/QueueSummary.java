@@ -0,0 +1,12 @@
+package com.filae.api.domain.queue;
+
+/**
+ * Live state of one establishment's queue
+ *
+ * @param establishmentId   establishment
+ * @param waiting           entries waiting to be called
+ * @param called            entries called and not yet finished or cancelled
+ * @param estimatedWaitTime estimated wait in minutes for someone joining now
+ */
+public record QueueSummary(Long establishmentId, int waiting, int called, int estimatedWaitTime) {
+}
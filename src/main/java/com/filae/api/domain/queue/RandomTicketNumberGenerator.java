@@ -0,0 +1,24 @@
+package com.filae.api.domain.queue;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Original ticket format: name prefix + 4 random hex chars, e.g. TA-3F9C.
+ *
+ * Only 65,536 numbers per prefix and not collision-free; kept for
+ * deployments that rely on the short format.
+ */
+@Component
+@ConditionalOnProperty(name = "queue.tickets.generator", havingValue = "random")
+public class RandomTicketNumberGenerator implements TicketNumberGenerator {
+
+    @Override
+    public String next(Long establishmentId, String establishmentName) {
+        int suffix = ThreadLocalRandom.current().nextInt(0x10000);
+        return TicketNumberGenerator.namePrefix(establishmentName)
+                + "-" + String.format("%04X", suffix);
+    }
+}
@@ -0,0 +1,37 @@
+package com.filae.api.domain.queue;
+
+import java.text.Normalizer;
+
+/**
+ * Source of the human-readable ticket numbers handed out on join.
+ *
+ * Called by QueueService while the establishment's queue is locked, so
+ * implementations only need to be safe across establishments. Takes the id
+ * and name rather than the entity, so a join can number its ticket from the
+ * cached establishment without loading it.
+ */
+public interface TicketNumberGenerator {
+
+    /**
+     * Ticket number for the next entry of an establishment's queue
+     */
+    String next(Long establishmentId, String establishmentName);
+
+    /**
+     * Two-letter, accent-folded prefix taken from an establishment name
+     */
+    static String namePrefix(String name) {
+        String folded = Normalizer.normalize(name == null ? "" : name, Normalizer.Form.NFD);
+        StringBuilder prefix = new StringBuilder(2);
+        for (int i = 0; i < folded.length() && prefix.length() < 2; i++) {
+            char c = Character.toUpperCase(folded.charAt(i));
+            if (c >= 'A' && c <= 'Z') {
+                prefix.append(c);
+            }
+        }
+        while (prefix.length() < 2) {
+            prefix.append('X');
+        }
+        return prefix.toString();
+    }
+}
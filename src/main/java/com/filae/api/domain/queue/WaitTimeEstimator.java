@@ -0,0 +1,237 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online, per-establishment wait time model.
+ *
+ * Learns how many minutes each position in line is worth from the interval
+ * between consecutive calls, only counting intervals during which somebody
+ * was already waiting (so idle time is not mistaken for service time). Call
+ * intervals are normalized by the party size of the ticket being served, using
+ * per-party-size service durations learned from call-to-finish times, and kept
+ * per hour of day with an all-day fallback. All averages are exponentially
+ * decayed, so every update is O(1) and history is never rescanned.
+ *
+ * Falls back to a fixed number of minutes per position until an
+ * establishment has enough samples.
+ */
+@Component
+public class WaitTimeEstimator implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(WaitTimeEstimator.class);
+
+    private static final String WARMUP_SQL =
+            "SELECT establishment_id, party_size, joined_at, called_at, finished_at FROM queues " +
+            "WHERE called_at >= ? ORDER BY establishment_id, called_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double alpha;
+    private final int minSamples;
+    private final double defaultMinutes;
+    private final double maxIntervalMinutes;
+    private final int warmupDays;
+
+    private final Map<Long, EstablishmentModel> models = new ConcurrentHashMap<>();
+
+    public WaitTimeEstimator(JdbcTemplate jdbcTemplate,
+                             @Value("${queue.estimator.alpha:0.2}") double alpha,
+                             @Value("${queue.estimator.min-samples:5}") int minSamples,
+                             @Value("${queue.estimator.default-minutes:10}") double defaultMinutes,
+                             @Value("${queue.estimator.max-interval:120}") double maxIntervalMinutes,
+                             @Value("${queue.estimator.warmup-days:7}") int warmupDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.alpha = alpha;
+        this.minSamples = minSamples;
+        this.defaultMinutes = defaultMinutes;
+        this.maxIntervalMinutes = maxIntervalMinutes;
+        this.warmupDays = warmupDays;
+    }
+
+    /**
+     * Warm the models up from recent history
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (warmupDays <= 0) {
+            return;
+        }
+        LogHelper.logMethodEntry(log, "warmup", warmupDays + " days");
+
+        jdbcTemplate.query(WARMUP_SQL, rs -> {
+            Long establishmentId = rs.getLong(1);
+            int partySize = rs.getInt(2);
+            Timestamp joined = rs.getTimestamp(3);
+            LocalDateTime joinedAt = joined != null ? joined.toLocalDateTime() : null;
+            LocalDateTime calledAt = rs.getTimestamp(4).toLocalDateTime();
+            Timestamp finishedAt = rs.getTimestamp(5);
+
+            EstablishmentModel model = model(establishmentId);
+            model.recordCall(joinedAt, calledAt, partySize);
+            if (finishedAt != null) {
+                model.recordService(partySize, calledAt, finishedAt.toLocalDateTime());
+            }
+            model.recordJoin(partySize);
+        }, Timestamp.valueOf(LocalDateTime.now().minusDays(warmupDays)));
+
+        LogHelper.logOperation(log, "Wait time models loaded", "establishments=" + models.size());
+        LogHelper.logMethodExit(log, "warmup");
+    }
+
+    /**
+     * Learn from a committed queue change (called by QueueService after commit)
+     */
+    public void apply(QueueStatusChangedEvent event) {
+        QueueSnapshot ticket = event.ticket();
+        EstablishmentModel model = model(ticket.establishmentId());
+        int partySize = ticket.partySize() != null ? ticket.partySize() : 1;
+
+        if (event.previousStatus() == null) {
+            model.recordJoin(partySize);
+        } else if (event.newStatus() == Queue.QueueStatus.CALLED) {
+            model.recordCall(ticket.joinedAt(), ticket.calledAt(), partySize);
+        } else if (event.newStatus() == Queue.QueueStatus.FINISHED && ticket.calledAt() != null) {
+            model.recordService(partySize, ticket.calledAt(), ticket.finishedAt());
+        }
+    }
+
+    /**
+     * Expected minutes per position in line right now
+     */
+    public double minutesPerPosition(Long establishmentId) {
+        EstablishmentModel model = models.get(establishmentId);
+        return model == null ? defaultMinutes : model.minutesPerPosition(LocalDateTime.now().getHour());
+    }
+
+    /**
+     * Estimated wait in minutes for a position, given the minutes per position
+     */
+    public static int estimate(int position, double minutesPerPosition) {
+        return (int) Math.round(position * minutesPerPosition);
+    }
+
+    private EstablishmentModel model(Long establishmentId) {
+        return models.computeIfAbsent(establishmentId, id -> new EstablishmentModel());
+    }
+
+    private static int partyBucket(int partySize) {
+        if (partySize <= 1) {
+            return 0;
+        }
+        if (partySize == 2) {
+            return 1;
+        }
+        return partySize <= 4 ? 2 : 3;
+    }
+
+    /**
+     * Exponentially decayed mean with a sample count
+     */
+    private final class Ewma {
+
+        private double value;
+        private long samples;
+
+        void update(double sample) {
+            value = samples == 0 ? sample : value + alpha * (sample - value);
+            samples++;
+        }
+
+        boolean isReliable() {
+            return samples >= minSamples;
+        }
+    }
+
+    /**
+     * Learned state of one establishment
+     */
+    private final class EstablishmentModel {
+
+        // Minutes between calls per unit of party weight, all day and per hour of day
+        private final Ewma callInterval = new Ewma();
+        private final Ewma[] callIntervalByHour = new Ewma[24];
+        // Minutes from call to finish per party size bucket
+        private final Ewma[] serviceByParty = new Ewma[4];
+        // Average party weight of joining tickets
+        private final Ewma partyMix = new Ewma();
+
+        private LocalDateTime lastCallAt;
+        private int lastCallPartySize;
+
+        EstablishmentModel() {
+            for (int i = 0; i < callIntervalByHour.length; i++) {
+                callIntervalByHour[i] = new Ewma();
+            }
+            for (int i = 0; i < serviceByParty.length; i++) {
+                serviceByParty[i] = new Ewma();
+            }
+        }
+
+        synchronized void recordJoin(int partySize) {
+            partyMix.update(weight(partySize));
+        }
+
+        synchronized void recordCall(LocalDateTime joinedAt, LocalDateTime calledAt, int partySize) {
+            if (calledAt == null) {
+                return;
+            }
+            // The interval since the previous call was spent serving only if this ticket was already waiting
+            if (lastCallAt != null && joinedAt != null && !joinedAt.isAfter(lastCallAt)) {
+                double minutes = Duration.between(lastCallAt, calledAt).toMillis() / 60_000d;
+                if (minutes > 0 && minutes <= maxIntervalMinutes) {
+                    double perUnit = minutes / weight(lastCallPartySize);
+                    callInterval.update(perUnit);
+                    callIntervalByHour[lastCallAt.getHour()].update(perUnit);
+                }
+            }
+            if (lastCallAt == null || calledAt.isAfter(lastCallAt)) {
+                lastCallAt = calledAt;
+                lastCallPartySize = partySize;
+            }
+        }
+
+        synchronized void recordService(int partySize, LocalDateTime calledAt, LocalDateTime finishedAt) {
+            if (finishedAt == null) {
+                return;
+            }
+            double minutes = Duration.between(calledAt, finishedAt).toMillis() / 60_000d;
+            if (minutes > 0 && minutes <= maxIntervalMinutes) {
+                serviceByParty[partyBucket(partySize)].update(minutes);
+            }
+        }
+
+        synchronized double minutesPerPosition(int hour) {
+            Ewma interval = callIntervalByHour[hour].isReliable() ? callIntervalByHour[hour] : callInterval;
+            if (!interval.isReliable()) {
+                return defaultMinutes;
+            }
+            double mix = partyMix.samples > 0 ? partyMix.value : 1.0;
+            return interval.value * mix;
+        }
+
+        /**
+         * Service cost of a party relative to a party of one (1.0 until learned)
+         */
+        private double weight(int partySize) {
+            Ewma single = serviceByParty[0];
+            Ewma party = serviceByParty[partyBucket(partySize)];
+            if (party == single || !single.isReliable() || !party.isReliable() || single.value <= 0) {
+                return 1.0;
+            }
+            return Math.max(0.5, Math.min(4.0, party.value / single.value));
+        }
+    }
+}
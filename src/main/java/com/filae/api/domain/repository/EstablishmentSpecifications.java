@@ -0,0 +1,90 @@
+package com.filae.api.domain.repository;
+
+import com.filae.api.domain.entity.Establishment;
+import com.filae.api.domain.search.EstablishmentCursor;
+import com.filae.api.domain.search.EstablishmentSort;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Composable predicates for establishment listings.
+ *
+ * Category, city and state compare lower(column), matching the expression
+ * indexes added in V9; each keyset predicate pairs with the Sort of the same
+ * ordering.
+ */
+public final class EstablishmentSpecifications {
+
+    private EstablishmentSpecifications() {
+    }
+
+    public static Specification<Establishment> all() {
+        return (root, query, cb) -> cb.conjunction();
+    }
+
+    public static Specification<Establishment> category(String category) {
+        return equalsIgnoreCase("category", category);
+    }
+
+    public static Specification<Establishment> city(String city) {
+        return equalsIgnoreCase("city", city);
+    }
+
+    public static Specification<Establishment> state(String state) {
+        return equalsIgnoreCase("state", state);
+    }
+
+    public static Specification<Establishment> acceptingCustomers() {
+        return (root, query, cb) -> cb.isTrue(root.get("isAcceptingCustomers"));
+    }
+
+    public static Specification<Establishment> queueEnabled(boolean enabled) {
+        return (root, query, cb) -> cb.equal(root.get("queueEnabled"), enabled);
+    }
+
+    public static Specification<Establishment> minRating(double rating) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("rating"), rating);
+    }
+
+    public static Specification<Establishment> merchant(Long merchantId) {
+        return (root, query, cb) -> cb.equal(root.get("merchant").get("id"), merchantId);
+    }
+
+    public static Specification<Establishment> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    /**
+     * Entries strictly after a cursor in its listing order
+     */
+    public static Specification<Establishment> after(EstablishmentCursor cursor) {
+        return switch (cursor.sort()) {
+            case NAME -> (root, query, cb) -> cb.or(
+                    cb.greaterThan(root.get("name"), cursor.key()),
+                    cb.and(cb.equal(root.get("name"), cursor.key()), cb.greaterThan(root.get("id"), cursor.id())));
+            case RATING -> (root, query, cb) -> cb.or(
+                    cb.lessThan(root.get("rating"), cursor.ratingKey()),
+                    cb.and(cb.equal(root.get("rating"), cursor.ratingKey()), cb.greaterThan(root.get("id"), cursor.id())));
+            case RELEVANCE -> throw new IllegalArgumentException("Relevance is ranked by the search index");
+        };
+    }
+
+    /**
+     * Sort matching a listing order and its keyset predicate
+     */
+    public static Sort orderBy(EstablishmentSort sort) {
+        return switch (sort) {
+            case NAME -> Sort.by(Sort.Order.asc("name"), Sort.Order.asc("id"));
+            case RATING -> Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id"));
+            case RELEVANCE -> throw new IllegalArgumentException("Relevance is ranked by the search index");
+        };
+    }
+
+    private static Specification<Establishment> equalsIgnoreCase(String attribute, String value) {
+        String lowered = value.trim().toLowerCase(Locale.ROOT);
+        return (root, query, cb) -> cb.equal(cb.lower(root.get(attribute)), lowered);
+    }
+}
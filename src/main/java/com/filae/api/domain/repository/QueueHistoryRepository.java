@@ -0,0 +1,21 @@
+package com.filae.api.domain.repository;
+
+import com.filae.api.domain.queue.QueueHistoryCursor;
+import com.filae.api.domain.queue.QueueSnapshot;
+
+import java.util.List;
+
+/**
+ * Reads over live and archived queue entries (the queue_history view)
+ */
+public interface QueueHistoryRepository {
+
+    /**
+     * A merchant's entries newest first, optionally for one establishment and after a cursor
+     *
+     * @param establishmentId restricts the listing to one establishment, or null for all
+     * @param after           keyset position to continue from, or null for the first page
+     */
+    List<QueueSnapshot> findMerchantHistory(Long merchantId, Long establishmentId,
+                                            QueueHistoryCursor after, int limit);
+}
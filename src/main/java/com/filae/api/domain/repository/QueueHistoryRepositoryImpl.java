@@ -0,0 +1,88 @@
+package com.filae.api.domain.repository;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.queue.QueueHistoryCursor;
+import com.filae.api.domain.queue.QueueSnapshot;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC implementation of QueueHistoryRepository, used by Spring Data as a
+ * QueueRepository fragment
+ */
+public class QueueHistoryRepositoryImpl implements QueueHistoryRepository {
+
+    private static final String SELECT_HISTORY =
+            "SELECT q.id, q.ticket_number, q.establishment_id, e.name, q.merchant_id, q.user_id, u.name, " +
+            "q.party_size, q.notes, q.sequence_number, q.position, q.total_in_queue, q.status, " +
+            "q.estimated_wait_time, q.joined_at, q.called_at, q.finished_at " +
+            "FROM queue_history q JOIN establishments e ON e.id = q.establishment_id " +
+            "JOIN users u ON u.id = q.user_id " +
+            "WHERE q.merchant_id = ?";
+
+    /**
+     * Keyset condition for entries after (joined_at, id) in newest-first order.
+     * The redundant upper bound on joined_at lets Postgres use it as an index range.
+     */
+    private static final String BEFORE_CURSOR = " AND q.joined_at <= ? AND (q.joined_at < ? OR q.id < ?)";
+
+    private static final String NEWEST_FIRST = " ORDER BY q.joined_at DESC, q.id DESC LIMIT ?";
+
+    private static final RowMapper<QueueSnapshot> SNAPSHOT_MAPPER = (rs, rowNum) -> new QueueSnapshot(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getLong(3),
+            rs.getString(4),
+            rs.getLong(5),
+            rs.getLong(6),
+            rs.getString(7),
+            rs.getInt(8),
+            rs.getString(9),
+            rs.getLong(10),
+            rs.getInt(11),
+            rs.getInt(12),
+            Queue.QueueStatus.valueOf(rs.getString(13)),
+            rs.getObject(14, Integer.class),
+            toLocalDateTime(rs.getTimestamp(15)),
+            toLocalDateTime(rs.getTimestamp(16)),
+            toLocalDateTime(rs.getTimestamp(17))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueueHistoryRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<QueueSnapshot> findMerchantHistory(Long merchantId, Long establishmentId,
+                                                   QueueHistoryCursor after, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_HISTORY);
+        List<Object> params = new ArrayList<>();
+        params.add(merchantId);
+        if (establishmentId != null) {
+            sql.append(" AND q.establishment_id = ?");
+            params.add(establishmentId);
+        }
+        if (after != null) {
+            Timestamp joinedAt = Timestamp.valueOf(after.joinedAt());
+            sql.append(BEFORE_CURSOR);
+            params.add(joinedAt);
+            params.add(joinedAt);
+            params.add(after.id());
+        }
+        sql.append(NEWEST_FIRST);
+        params.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), SNAPSHOT_MAPPER, params.toArray());
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -2,13 +2,16 @@ package com.filae.api.domain.repository;
 
 import com.filae.api.domain.entity.Queue;
 import com.filae.api.domain.entity.Queue.QueueStatus;
+import com.filae.api.domain.queue.QueueSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,17 +19,27 @@ import java.util.Optional;
  * Repository for Queue entity
  */
 @Repository
-public interface QueueRepository extends JpaRepository<Queue, Long> {
+public interface QueueRepository extends JpaRepository<Queue, Long>, QueueHistoryRepository {
 
-    Optional<Queue> findByTicketNumber(String ticketNumber);
+    /**
+     * Projection of the columns a QueueSnapshot needs, read in a single statement
+     */
+    String SELECT_SNAPSHOT =
+            "SELECT new com.filae.api.domain.queue.QueueSnapshot(q.id, q.ticketNumber, e.id, e.name, q.merchantId, " +
+            "u.id, u.name, q.partySize, q.notes, q.sequenceNumber, q.position, q.totalInQueue, q.status, " +
+            "q.estimatedWaitTime, q.joinedAt, q.calledAt, q.finishedAt) " +
+            "FROM Queue q JOIN q.establishment e JOIN q.user u ";
+
+    @EntityGraph(attributePaths = {"establishment", "user"})
+    Optional<Queue> findWithDetailsById(Long id);
 
-    List<Queue> findByEstablishmentIdAndStatusOrderByPositionAsc(Long establishmentId, QueueStatus status);
+    Optional<Queue> findByTicketNumber(String ticketNumber);
 
-    List<Queue> findByEstablishmentIdAndStatusOrderByPosition(Long establishmentId, QueueStatus status);
+    List<Queue> findByEstablishmentIdAndStatusOrderBySequenceNumberAsc(Long establishmentId, QueueStatus status);
 
     Page<Queue> findByUserIdOrderByJoinedAtDesc(Long userId, Pageable pageable);
 
-    List<Queue> findByUserIdOrderByCreatedAtDesc(Long userId);
+    List<Queue> findByUserIdOrderByJoinedAtDesc(Long userId);
 
     Optional<Queue> findByUserIdAndEstablishmentIdAndStatus(Long userId, Long establishmentId, QueueStatus status);
 
@@ -36,21 +49,27 @@ public interface QueueRepository extends JpaRepository<Queue, Long> {
     @Query("SELECT COUNT(q) FROM Queue q WHERE q.establishment.id = :establishmentId AND q.status = :status")
     Integer countByEstablishmentAndStatus(@Param("establishmentId") Long establishmentId, @Param("status") QueueStatus status);
 
-    @Query("SELECT q FROM Queue q WHERE q.establishment.id = :establishmentId AND q.status IN ('WAITING', 'CALLED') ORDER BY q.position ASC")
+    @Query("SELECT q FROM Queue q WHERE q.establishment.id = :establishmentId AND q.status IN ('WAITING', 'CALLED') ORDER BY q.sequenceNumber ASC")
     List<Queue> findActiveQueuesForEstablishment(@Param("establishmentId") Long establishmentId);
 
-    boolean existsByUserIdAndEstablishmentIdAndStatusIn(Long userId, Long establishmentId, List<QueueStatus> statuses);
+    @Query("SELECT q FROM Queue q JOIN FETCH q.establishment JOIN FETCH q.user " +
+           "WHERE q.status = :status ORDER BY q.establishment.id, q.sequenceNumber")
+    List<Queue> findByStatusWithDetails(@Param("status") QueueStatus status);
 
-    // Merchant-specific queries
-    List<Queue> findByMerchantIdOrderByJoinedAtDesc(Long merchantId);
+    @Query("SELECT q.establishment.id FROM Queue q WHERE q.id = :id")
+    Optional<Long> findEstablishmentIdById(@Param("id") Long id);
 
-    List<Queue> findByMerchantIdAndStatusOrderByPositionAsc(Long merchantId, QueueStatus status);
+    @Query(value = "SELECT * FROM queues WHERE establishment_id = :establishmentId AND status = 'WAITING' " +
+                   "ORDER BY sequence_number LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Queue> lockNextWaiting(@Param("establishmentId") Long establishmentId);
 
-    List<Queue> findByMerchantIdAndEstablishmentIdOrderByPositionAsc(Long merchantId, Long establishmentId);
+    Optional<Queue> findFirstByUserIdAndJoinKeyAndJoinedAtAfterOrderByIdDesc(Long userId, String joinKey,
+                                                                           LocalDateTime joinedAfter);
 
-    @Query("SELECT q FROM Queue q WHERE q.merchantId = :merchantId AND q.status IN ('WAITING', 'CALLED') ORDER BY q.position ASC")
-    List<Queue> findActiveMerchantQueues(@Param("merchantId") Long merchantId);
+    boolean existsByUserIdAndEstablishmentIdAndStatusIn(Long userId, Long establishmentId, List<QueueStatus> statuses);
 
-    @Query("SELECT COUNT(q) FROM Queue q WHERE q.merchantId = :merchantId AND q.status = :status")
-    Integer countMerchantQueuesByStatus(@Param("merchantId") Long merchantId, @Param("status") QueueStatus status);
+    // Merchant-specific queries (history listings live in QueueHistoryRepository)
+    @Query(SELECT_SNAPSHOT + "WHERE q.merchantId = :merchantId AND q.status IN ('WAITING', 'CALLED') " +
+           "ORDER BY q.sequenceNumber ASC")
+    List<QueueSnapshot> findActiveMerchantSnapshots(@Param("merchantId") Long merchantId);
 }
@@ -0,0 +1,53 @@
+package com.filae.api.domain.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in an establishment listing: the sort key of the last entry
+ * returned (its name, rating or relevance rank) and its id. Clients only see
+ * the encoded, opaque form.
+ */
+public record EstablishmentCursor(EstablishmentSort sort, Long id, String key) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sort + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor received from a client, which must belong to a listing with the same sort
+     */
+    public static EstablishmentCursor decode(String cursor, EstablishmentSort expectedSort) {
+        EstablishmentCursor decoded;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            decoded = new EstablishmentCursor(EstablishmentSort.valueOf(parts[0]), Long.parseLong(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (decoded.sort() != expectedSort) {
+            throw new IllegalArgumentException("Cursor does not belong to a listing sorted by " + expectedSort);
+        }
+        return decoded;
+    }
+
+    public double ratingKey() {
+        try {
+            return Double.parseDouble(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public int rankKey() {
+        try {
+            return Integer.parseInt(key);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.filae.api.domain.search;
+
+/**
+ * Criteria of an establishment listing; every field is optional and all given ones must match
+ *
+ * @param query         free text matched by the search index
+ * @param category      category, case insensitive
+ * @param city          city, case insensitive
+ * @param state         two-letter state code, case insensitive
+ * @param acceptingOnly only establishments currently accepting customers
+ * @param queueEnabled  queue enabled (true) or disabled (false)
+ * @param minRating     minimum rating
+ * @param merchantId    owning merchant
+ */
+public record EstablishmentFilter(
+        String query,
+        String category,
+        String city,
+        String state,
+        boolean acceptingOnly,
+        Boolean queueEnabled,
+        Double minRating,
+        Long merchantId) {
+
+    public boolean hasQuery() {
+        return query != null && !query.isBlank();
+    }
+}
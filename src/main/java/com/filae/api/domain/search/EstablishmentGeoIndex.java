@@ -0,0 +1,308 @@
+package com.filae.api.domain.search;
+
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory uniform grid over establishment coordinates for "near me" lookups.
+ *
+ * Each establishment with coordinates is bucketed into a cell of a fixed
+ * number of degrees. A lookup scans rings of cells outward from the origin's
+ * cell, keeping the k closest candidates that pass the filters, and stops as
+ * soon as the next ring cannot contain anything closer than the current k-th
+ * result or lies beyond the radius. Only the handful of cells around the
+ * origin are touched, independent of how many establishments are indexed.
+ * Lookups whose radius reaches the polar caps, where meridians converge too
+ * fast for the rings to stop early, scan every establishment instead.
+ *
+ * Loaded on startup and kept current from committed EstablishmentChangedEvents,
+ * with a periodic rebuild to pick up changes made by other nodes or by SQL.
+ */
+@Component
+public class EstablishmentGeoIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(EstablishmentGeoIndex.class);
+
+    private static final String SELECT_POINTS =
+            "SELECT id, latitude, longitude, category, is_accepting_customers FROM establishments " +
+            "WHERE latitude IS NOT NULL AND longitude IS NOT NULL";
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    /**
+     * Latitude beyond which lookups fall back to a linear scan; meridians converge too fast there for a grid
+     */
+    private static final double MAX_GRID_LATITUDE = 85.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double cellDegrees;
+    private final int columns;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<Long, Point> points = new HashMap<>();
+    private final Set<Long> refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public EstablishmentGeoIndex(JdbcTemplate jdbcTemplate,
+                                 @Value("${search.nearby.cell-degrees:0.02}") double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 1) {
+            throw new IllegalArgumentException("search.nearby.cell-degrees must be in (0, 1]");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Reload every establishment with coordinates
+     */
+    @Scheduled(initialDelayString = "${search.establishments.rebuild-interval:600000}",
+               fixedDelayString = "${search.establishments.rebuild-interval:600000}")
+    public void rebuild() {
+        LogHelper.logMethodEntry(log, "rebuild");
+
+        refreshedDuringRebuild.clear();
+        List<Point> loaded = jdbcTemplate.query(SELECT_POINTS, (rs, rowNum) -> toPoint(rs));
+
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            points.clear();
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // The full load may have read a row before a concurrent change committed
+        for (Long establishmentId : List.copyOf(refreshedDuringRebuild)) {
+            refresh(establishmentId, false);
+        }
+
+        LogHelper.logOperation(log, "Establishment geo index loaded", "establishments=" + loaded.size(),
+                "cells=" + cells.size());
+        LogHelper.logMethodExit(log, "rebuild");
+    }
+
+    /**
+     * Re-index an establishment once its change is committed
+     */
+    @TransactionalEventListener
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        refresh(event.establishmentId(), event.type() == ChangeType.DELETED);
+    }
+
+    /**
+     * Re-read one establishment from the database (or drop it when deleted)
+     */
+    public void refresh(Long establishmentId, boolean deleted) {
+        refreshedDuringRebuild.add(establishmentId);
+        List<Point> loaded = deleted ? List.of() : jdbcTemplate.query(SELECT_POINTS + " AND id = ?",
+                (rs, rowNum) -> toPoint(rs), establishmentId);
+
+        lock.writeLock().lock();
+        try {
+            remove(establishmentId);
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit establishments within radiusKm of a point, closest first
+     *
+     * @param category      exact category (accent and case insensitive), or null
+     * @param acceptingOnly only establishments currently accepting customers
+     */
+    public List<NearbyMatch> nearest(double latitude, double longitude, double radiusKm, int limit,
+                                     String category, boolean acceptingOnly) {
+        String categoryKey = category == null || category.isBlank() ? null : SearchText.fold(category);
+        PriorityQueue<NearbyMatch> closest = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(NearbyMatch::distanceKm).reversed());
+
+        int originRow = row(latitude);
+        int originColumn = column(longitude);
+
+        lock.readLock().lock();
+        try {
+            if (Math.abs(latitude) + radiusKm / KM_PER_DEGREE >= MAX_GRID_LATITUDE) {
+                collect(points.values(), latitude, longitude, radiusKm, limit, categoryKey, acceptingOnly, closest);
+                return sorted(closest);
+            }
+
+            for (int ring = 0; ; ring++) {
+                for (int r = originRow - ring; r <= originRow + ring; r++) {
+                    boolean edgeRow = r == originRow - ring || r == originRow + ring;
+                    int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                    for (int c = originColumn - ring; c <= originColumn + ring; c += step) {
+                        List<Point> cell = cells.get(key(r, c));
+                        if (cell != null) {
+                            collect(cell, latitude, longitude, radiusKm, limit, categoryKey, acceptingOnly, closest);
+                        }
+                    }
+                }
+
+                // Anything within the radius but outside the rings scanned so far is at least this far away
+                double covered = coveredKm(latitude, longitude, radiusKm, ring);
+                if (covered >= radiusKm || ring >= columns / 2) {
+                    break;
+                }
+                if (closest.size() == limit && closest.peek().distanceKm() <= covered) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return sorted(closest);
+    }
+
+    /**
+     * Number of establishments with coordinates in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<NearbyMatch> sorted(PriorityQueue<NearbyMatch> closest) {
+        List<NearbyMatch> matches = new ArrayList<>(closest);
+        matches.sort(Comparator.comparingDouble(NearbyMatch::distanceKm));
+        return matches;
+    }
+
+    private static void collect(Collection<Point> cell, double latitude, double longitude, double radiusKm, int limit,
+                                String categoryKey, boolean acceptingOnly, PriorityQueue<NearbyMatch> closest) {
+        for (Point point : cell) {
+            if (acceptingOnly && !point.accepting()) {
+                continue;
+            }
+            if (categoryKey != null && !categoryKey.equals(point.categoryKey())) {
+                continue;
+            }
+
+            double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+            if (distance > radiusKm) {
+                continue;
+            }
+            if (closest.size() < limit) {
+                closest.add(new NearbyMatch(point.id(), distance));
+            } else if (distance < closest.peek().distanceKm()) {
+                closest.poll();
+                closest.add(new NearbyMatch(point.id(), distance));
+            }
+        }
+    }
+
+    /**
+     * Lower bound on the distance from the origin to any point within the
+     * radius but outside the rings scanned so far.
+     *
+     * Points above or below the rings are at least their latitude difference
+     * away. Points beside them lie in the rings' rows and within the radius'
+     * latitudes, so by the haversine formula they are at least as far as a
+     * point at the highest of those latitudes and the smallest longitude
+     * difference.
+     */
+    private double coveredKm(double latitude, double longitude, double radiusKm, int ring) {
+        double latitudeOffset = latitude - row(latitude) * cellDegrees;
+        double longitudeOffset = longitude - column(longitude) * cellDegrees;
+        double latitudeDegrees = ring * cellDegrees + Math.min(latitudeOffset, cellDegrees - latitudeOffset);
+        double longitudeDegrees = ring * cellDegrees + Math.min(longitudeOffset, cellDegrees - longitudeOffset);
+
+        double highestLatitude = Math.abs(latitude)
+                + Math.min((ring + 1) * cellDegrees, radiusKm / KM_PER_DEGREE);
+        double halfLongitude = Math.sin(Math.toRadians(Math.min(180, longitudeDegrees)) / 2);
+        double a = Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(highestLatitude))
+                * halfLongitude * halfLongitude;
+        return Math.min(latitudeDegrees * KM_PER_DEGREE, 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a))));
+    }
+
+    /**
+     * Haversine distance between two coordinates
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void add(Point point) {
+        points.put(point.id(), point);
+        cells.computeIfAbsent(key(row(point.latitude()), column(point.longitude())), k -> new ArrayList<>()).add(point);
+    }
+
+    private void remove(Long id) {
+        Point point = points.remove(id);
+        if (point == null) {
+            return;
+        }
+
+        long key = key(row(point.latitude()), column(point.longitude()));
+        List<Point> cell = cells.get(key);
+        cell.removeIf(p -> p.id().equals(id));
+        if (cell.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    /**
+     * Cell key, with columns wrapped around the antimeridian
+     */
+    private long key(int row, int column) {
+        return ((long) row << 32) | Math.floorMod(column, columns);
+    }
+
+    private static Point toPoint(ResultSet rs) throws SQLException {
+        return new Point(rs.getLong("id"), rs.getDouble("latitude"), rs.getDouble("longitude"),
+                SearchText.fold(rs.getString("category")), rs.getBoolean("is_accepting_customers"));
+    }
+
+    /**
+     * Indexed location and filter attributes of one establishment
+     */
+    private record Point(Long id, double latitude, double longitude, String categoryKey, boolean accepting) {
+    }
+}
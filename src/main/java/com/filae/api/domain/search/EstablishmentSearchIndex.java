@@ -0,0 +1,367 @@
+package com.filae.api.domain.search;
+
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over establishments for the discovery search.
+ *
+ * Name, category, city and description are folded (accents removed,
+ * lower-cased) and tokenized; each term keeps the best field weight per
+ * establishment. A query token matches terms exactly, as a prefix (the user
+ * is still typing) or, for longer tokens, by trigram similarity (typos).
+ * Every query token must match; establishments are ranked by the sum of their
+ * best match per token, then by rating. Category and city filters are exact
+ * (folded) lookups intersected with the text matches.
+ *
+ * Loaded on startup and kept current from committed EstablishmentChangedEvents,
+ * with a periodic rebuild to pick up changes made by other nodes or by SQL.
+ */
+@Component
+public class EstablishmentSearchIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(EstablishmentSearchIndex.class);
+
+    private static final String SELECT_DOCUMENTS =
+            "SELECT id, name, description, category, city, rating FROM establishments";
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float CITY_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final double EXACT_MATCH = 1.0;
+    private static final double PREFIX_MATCH = 0.8;
+    private static final double FUZZY_MATCH = 0.6;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double fuzzyThreshold;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final Map<String, Set<Long>> byCategory = new HashMap<>();
+    private final Map<String, Set<Long>> byCity = new HashMap<>();
+    private final Set<Long> refreshedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public EstablishmentSearchIndex(JdbcTemplate jdbcTemplate,
+                                    @Value("${search.establishments.fuzzy-threshold:0.35}") double fuzzyThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Reload every establishment
+     */
+    @Scheduled(initialDelayString = "${search.establishments.rebuild-interval:600000}",
+               fixedDelayString = "${search.establishments.rebuild-interval:600000}")
+    public void rebuild() {
+        LogHelper.logMethodEntry(log, "rebuild");
+
+        refreshedDuringRebuild.clear();
+        List<Document> loaded = jdbcTemplate.query(SELECT_DOCUMENTS, (rs, rowNum) -> toDocument(rs));
+
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            termsByTrigram.clear();
+            byCategory.clear();
+            byCity.clear();
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // The full load may have read a row before a concurrent change committed
+        for (Long establishmentId : List.copyOf(refreshedDuringRebuild)) {
+            refresh(establishmentId, false);
+        }
+
+        LogHelper.logOperation(log, "Establishment search index loaded", "establishments=" + loaded.size(),
+                "terms=" + postings.size());
+        LogHelper.logMethodExit(log, "rebuild");
+    }
+
+    /**
+     * Re-index an establishment once its change is committed
+     */
+    @TransactionalEventListener
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        refresh(event.establishmentId(), event.type() == ChangeType.DELETED);
+    }
+
+    /**
+     * Re-read one establishment from the database (or drop it when deleted)
+     */
+    public void refresh(Long establishmentId, boolean deleted) {
+        refreshedDuringRebuild.add(establishmentId);
+        List<Document> loaded = deleted ? List.of() : jdbcTemplate.query(SELECT_DOCUMENTS + " WHERE id = ?",
+                (rs, rowNum) -> toDocument(rs), establishmentId);
+
+        lock.writeLock().lock();
+        try {
+            remove(establishmentId);
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of matching establishments, best first
+     *
+     * @param query    free text, or null/blank for filters only; text with no searchable
+     *                 characters (e.g. "!!!") matches nothing
+     * @param category exact category (accent and case insensitive), or null
+     * @param city     exact city (accent and case insensitive), or null
+     */
+    public List<Long> search(String query, String category, String city, int limit) {
+        List<String> tokens = SearchText.tokens(query);
+        if (tokens.isEmpty() && query != null && !query.isBlank()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> allowed = filter(category, city);
+            if (allowed != null && allowed.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            Map<Long, Double> scores;
+            if (tokens.isEmpty()) {
+                scores = new HashMap<>();
+                for (Long id : allowed != null ? allowed : documents.keySet()) {
+                    scores.put(id, 0.0);
+                }
+            } else {
+                scores = score(tokens, allowed);
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Comparator.<Map.Entry<Long, Double>>comparingDouble(Map.Entry::getValue).reversed()
+                            .thenComparing(entry -> documents.get(entry.getKey()), Document.BY_RATING_THEN_NAME))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sum over query tokens of each establishment's best match; establishments missing a token are dropped
+     */
+    private Map<Long, Double> score(List<String> tokens, Set<Long> allowed) {
+        Map<Long, Double> scores = null;
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            for (Map.Entry<String, Double> term : expand(token).entrySet()) {
+                for (Map.Entry<Long, Float> posting : postings.get(term.getKey()).entrySet()) {
+                    Long id = posting.getKey();
+                    if (allowed != null && !allowed.contains(id)) {
+                        continue;
+                    }
+                    if (scores != null && !scores.containsKey(id)) {
+                        continue;
+                    }
+                    tokenScores.merge(id, term.getValue() * posting.getValue(), Math::max);
+                }
+            }
+
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Index terms a query token matches, with the match quality
+     */
+    private Map<String, Double> expand(String token) {
+        Map<String, Double> terms = new HashMap<>();
+        if (postings.containsKey(token)) {
+            terms.put(token, EXACT_MATCH);
+        }
+
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                if (terms.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                terms.putIfAbsent(term, PREFIX_MATCH);
+            }
+        }
+
+        if (token.length() >= MIN_FUZZY_LENGTH) {
+            Set<String> tokenTrigrams = SearchText.trigrams(token);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : tokenTrigrams) {
+                for (String term : termsByTrigram.getOrDefault(trigram, Collections.emptySet())) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+            shared.entrySet().stream()
+                    .filter(entry -> !terms.containsKey(entry.getKey()))
+                    .map(entry -> Map.entry(entry.getKey(),
+                            similarity(entry.getValue(), tokenTrigrams.size(), SearchText.trigrams(entry.getKey()).size())))
+                    .filter(entry -> entry.getValue() >= fuzzyThreshold)
+                    .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                    .limit(MAX_EXPANSIONS)
+                    .forEach(entry -> terms.put(entry.getKey(), FUZZY_MATCH * entry.getValue()));
+        }
+        return terms;
+    }
+
+    private Set<Long> filter(String category, String city) {
+        Set<Long> allowed = null;
+        if (category != null && !category.isBlank()) {
+            allowed = byCategory.getOrDefault(SearchText.fold(category), Collections.emptySet());
+        }
+        if (city != null && !city.isBlank()) {
+            Set<Long> inCity = byCity.getOrDefault(SearchText.fold(city), Collections.emptySet());
+            if (allowed == null) {
+                allowed = inCity;
+            } else {
+                Set<Long> smaller = allowed.size() <= inCity.size() ? allowed : inCity;
+                Set<Long> larger = smaller == allowed ? inCity : allowed;
+                Set<Long> both = new HashSet<>();
+                for (Long id : smaller) {
+                    if (larger.contains(id)) {
+                        both.add(id);
+                    }
+                }
+                allowed = both;
+            }
+        }
+        return allowed;
+    }
+
+    private static double similarity(int shared, int tokenTrigrams, int termTrigrams) {
+        return (double) shared / (tokenTrigrams + termTrigrams - shared);
+    }
+
+    private void add(Document document) {
+        documents.put(document.id(), document);
+
+        Map<String, Float> terms = new HashMap<>();
+        index(terms, document.name(), NAME_WEIGHT);
+        index(terms, document.category(), CATEGORY_WEIGHT);
+        index(terms, document.city(), CITY_WEIGHT);
+        index(terms, document.description(), DESCRIPTION_WEIGHT);
+        document.terms().addAll(terms.keySet());
+
+        terms.forEach((term, weight) -> {
+            Map<Long, Float> termPostings = postings.get(term);
+            if (termPostings == null) {
+                termPostings = new HashMap<>();
+                postings.put(term, termPostings);
+                for (String trigram : SearchText.trigrams(term)) {
+                    termsByTrigram.computeIfAbsent(trigram, t -> new HashSet<>()).add(term);
+                }
+            }
+            termPostings.put(document.id(), weight);
+        });
+
+        byCategory.computeIfAbsent(SearchText.fold(document.category()), c -> new HashSet<>()).add(document.id());
+        byCity.computeIfAbsent(SearchText.fold(document.city()), c -> new HashSet<>()).add(document.id());
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+
+        for (String term : document.terms()) {
+            Map<Long, Float> termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                for (String trigram : SearchText.trigrams(term)) {
+                    Set<String> terms = termsByTrigram.get(trigram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        termsByTrigram.remove(trigram);
+                    }
+                }
+            }
+        }
+        removeFrom(byCategory, SearchText.fold(document.category()), id);
+        removeFrom(byCity, SearchText.fold(document.city()), id);
+    }
+
+    private static void index(Map<String, Float> terms, String text, float weight) {
+        for (String token : SearchText.tokens(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    private static void removeFrom(Map<String, Set<Long>> lookup, String key, Long id) {
+        Set<Long> ids = lookup.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                lookup.remove(key);
+            }
+        }
+    }
+
+    private static Document toDocument(ResultSet rs) throws SQLException {
+        return new Document(rs.getLong("id"), rs.getString("name"), rs.getString("description"),
+                rs.getString("category"), rs.getString("city"), rs.getDouble("rating"), new ArrayList<>());
+    }
+
+    /**
+     * Indexed fields of one establishment and the terms it was indexed under
+     */
+    private record Document(Long id, String name, String description, String category, String city,
+                            double rating, List<String> terms) {
+
+        static final Comparator<Document> BY_RATING_THEN_NAME = Comparator
+                .comparingDouble(Document::rating).reversed()
+                .thenComparing(Document::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+    }
+}
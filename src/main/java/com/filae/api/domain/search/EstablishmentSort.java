@@ -0,0 +1,23 @@
+package com.filae.api.domain.search;
+
+import java.util.Locale;
+
+/**
+ * Orderings of an establishment listing, each with a unique keyset tie-break on id
+ */
+public enum EstablishmentSort {
+    /** Name ascending */
+    NAME,
+    /** Rating descending */
+    RATING,
+    /** Search index relevance; only with a text query */
+    RELEVANCE;
+
+    public static EstablishmentSort from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.filae.api.domain.search;
+
+import com.filae.api.domain.entity.Establishment;
+
+/**
+ * Establishment near a search origin, with its live queue
+ *
+ * @param establishment    matched establishment
+ * @param distanceKm       great-circle distance from the search origin
+ * @param currentInQueue   entries waiting right now
+ * @param currentWaitTime  estimated wait in minutes for someone joining now
+ */
+public record NearbyEstablishment(
+        Establishment establishment,
+        double distanceKm,
+        int currentInQueue,
+        int currentWaitTime) {
+}
@@ -0,0 +1,10 @@
+package com.filae.api.domain.search;
+
+/**
+ * Establishment found by a nearby lookup
+ *
+ * @param establishmentId id of the establishment
+ * @param distanceKm      great-circle distance from the search origin
+ */
+public record NearbyMatch(Long establishmentId, double distanceKm) {
+}
@@ -56,7 +56,7 @@ public class AuthService {
         User savedUser = userService.createUser(user);
 
         // Generate JWT token
-        String token = tokenProvider.generateToken(savedUser.getEmail());
+        String token = tokenProvider.generateToken(savedUser);
 
         LogHelper.logSecurityEvent(log, "User registered", savedUser.getEmail());
         LogHelper.logMethodExit(log, "register", savedUser.getId());
@@ -88,13 +88,13 @@ public class AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // Generate JWT token
-        String token = tokenProvider.generateToken(authentication);
-
         // Get user details
         User user = userService.findByEmail(request.getEmail())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
+        // Generate JWT token
+        String token = tokenProvider.generateToken(user);
+
         LogHelper.logSecurityEvent(log, "Login successful", user.getEmail());
         LogHelper.logMethodExit(log, "login", user.getId());
 
@@ -1,14 +1,39 @@
 package com.filae.api.domain.service;
 
 import com.filae.api.domain.entity.Establishment;
+import com.filae.api.domain.establishment.CachedEstablishment;
+import com.filae.api.domain.establishment.EstablishmentCache;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.domain.pagination.CursorPage;
+import com.filae.api.domain.pagination.PageSizes;
+import com.filae.api.domain.queue.QueueSummaries;
+import com.filae.api.domain.queue.QueueSummary;
 import com.filae.api.domain.repository.EstablishmentRepository;
+import com.filae.api.domain.repository.EstablishmentSpecifications;
+import com.filae.api.domain.search.EstablishmentCursor;
+import com.filae.api.domain.search.EstablishmentFilter;
+import com.filae.api.domain.search.EstablishmentGeoIndex;
+import com.filae.api.domain.search.EstablishmentSearchIndex;
+import com.filae.api.domain.search.EstablishmentSort;
+import com.filae.api.domain.search.NearbyEstablishment;
+import com.filae.api.domain.search.NearbyMatch;
 import com.filae.api.infrastructure.logging.LogHelper;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for establishment management operations
@@ -20,64 +45,221 @@ public class EstablishmentService {
     private static final Logger log = LogHelper.getLogger(EstablishmentService.class);
 
     private final EstablishmentRepository establishmentRepository;
+    private final EstablishmentCache establishmentCache;
+    private final EstablishmentSearchIndex searchIndex;
+    private final EstablishmentGeoIndex geoIndex;
+    private final QueueSummaries queueSummaries;
+    private final PageSizes pageSizes;
+    private final ApplicationEventPublisher eventPublisher;
+    private final double maxNearbyRadiusKm;
+    private final int maxSearchCandidates;
 
-    public EstablishmentService(EstablishmentRepository establishmentRepository) {
+    public EstablishmentService(EstablishmentRepository establishmentRepository,
+                                EstablishmentCache establishmentCache,
+                                EstablishmentSearchIndex searchIndex,
+                                EstablishmentGeoIndex geoIndex,
+                                QueueSummaries queueSummaries,
+                                PageSizes pageSizes,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${search.nearby.max-radius-km:50}") double maxNearbyRadiusKm,
+                                @Value("${search.establishments.max-candidates:1000}") int maxSearchCandidates) {
         this.establishmentRepository = establishmentRepository;
+        this.establishmentCache = establishmentCache;
+        this.searchIndex = searchIndex;
+        this.geoIndex = geoIndex;
+        this.queueSummaries = queueSummaries;
+        this.pageSizes = pageSizes;
+        this.eventPublisher = eventPublisher;
+        this.maxNearbyRadiusKm = maxNearbyRadiusKm;
+        this.maxSearchCandidates = maxSearchCandidates;
     }
 
     /**
-     * Get all establishments
+     * Find establishment by ID (served from the establishment cache)
      */
-    @Transactional(readOnly = true)
-    public List<Establishment> findAll() {
-        LogHelper.logMethodEntry(log, "findAll");
-        List<Establishment> establishments = establishmentRepository.findAll();
-        LogHelper.logMethodExit(log, "findAll", establishments.size() + " establishments");
-        return establishments;
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<CachedEstablishment> findById(Long id) {
+        LogHelper.logMethodEntry(log, "findById", id);
+        Optional<CachedEstablishment> establishment = establishmentCache.get(id);
+        LogHelper.logMethodExit(log, "findById", establishment.isPresent() ? "found" : "not found");
+        return establishment;
     }
 
     /**
-     * Find establishment by ID
+     * Get a page of establishments matching every given filter, in keyset order.
+     * Without an explicit sort, listings with a text query are ranked by
+     * relevance and the others are sorted by name.
      */
     @Transactional(readOnly = true)
-    public Optional<Establishment> findById(Long id) {
-        LogHelper.logMethodEntry(log, "findById", id);
-        Optional<Establishment> establishment = establishmentRepository.findById(id);
-        LogHelper.logMethodExit(log, "findById", establishment.isPresent() ? "found" : "not found");
-        return establishment;
+    public CursorPage<Establishment> list(EstablishmentFilter filter, String sort, String cursor, Integer limit) {
+        LogHelper.logMethodEntry(log, "list", filter, sort, cursor, limit);
+
+        EstablishmentSort order = sort != null ? EstablishmentSort.from(sort)
+                : filter.hasQuery() ? EstablishmentSort.RELEVANCE : EstablishmentSort.NAME;
+        if (order == EstablishmentSort.RELEVANCE && !filter.hasQuery()) {
+            throw new IllegalArgumentException("Sorting by relevance requires a text query");
+        }
+        int size = pageSizes.resolve(limit);
+        EstablishmentCursor after = cursor != null ? EstablishmentCursor.decode(cursor, order) : null;
+
+        CursorPage<Establishment> page = order == EstablishmentSort.RELEVANCE
+                ? listByRelevance(filter, after, size)
+                : listByKeyset(filter, order, after, size);
+
+        LogHelper.logMethodExit(log, "list", page.items().size() + " establishments");
+        return page;
     }
 
     /**
-     * Find establishments by category
+     * One indexed query: filters and keyset predicate, limited to one row past the page
      */
-    @Transactional(readOnly = true)
-    public List<Establishment> findByCategory(String category) {
-        LogHelper.logMethodEntry(log, "findByCategory", category);
-        List<Establishment> establishments = establishmentRepository.findByCategory(category);
-        LogHelper.logMethodExit(log, "findByCategory", establishments.size() + " establishments");
-        return establishments;
+    private CursorPage<Establishment> listByKeyset(EstablishmentFilter filter, EstablishmentSort order,
+                                                   EstablishmentCursor after, int size) {
+        Specification<Establishment> spec = filterSpecification(filter);
+        if (filter.hasQuery()) {
+            spec = spec.and(EstablishmentSpecifications.idIn(
+                    searchIndex.search(filter.query(), filter.category(), filter.city(), maxSearchCandidates)));
+        }
+        if (after != null) {
+            spec = spec.and(EstablishmentSpecifications.after(after));
+        }
+
+        List<Establishment> rows = establishmentRepository.findBy(spec, query -> query
+                .sortBy(EstablishmentSpecifications.orderBy(order))
+                .limit(size + 1)
+                .all());
+
+        boolean hasMore = rows.size() > size;
+        List<Establishment> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            Establishment last = items.get(size - 1);
+            String key = order == EstablishmentSort.NAME ? last.getName() : String.valueOf(last.getRating());
+            nextCursor = new EstablishmentCursor(order, last.getId(), key).encode();
+        }
+        return new CursorPage<>(items, nextCursor);
     }
 
     /**
-     * Find establishments by city
+     * Walk the index ranking from the cursor's rank, applying the remaining filters
+     * to one slice of ids at a time until the page is full
      */
-    @Transactional(readOnly = true)
-    public List<Establishment> findByCity(String city) {
-        LogHelper.logMethodEntry(log, "findByCity", city);
-        List<Establishment> establishments = establishmentRepository.findByCity(city);
-        LogHelper.logMethodExit(log, "findByCity", establishments.size() + " establishments");
-        return establishments;
+    private CursorPage<Establishment> listByRelevance(EstablishmentFilter filter, EstablishmentCursor after,
+                                                      int size) {
+        List<Long> ranked = searchIndex.search(filter.query(), filter.category(), filter.city(), maxSearchCandidates);
+        Specification<Establishment> spec = filterSpecification(filter);
+
+        List<Establishment> items = new ArrayList<>(size);
+        int rank = after != null ? after.rankKey() + 1 : 0;
+        int lastRank = -1;
+        while (rank < ranked.size() && items.size() <= size) {
+            List<Long> slice = ranked.subList(rank, Math.min(ranked.size(), rank + size + 1));
+            Map<Long, Establishment> byId = establishmentRepository
+                    .findAll(spec.and(EstablishmentSpecifications.idIn(slice))).stream()
+                    .collect(Collectors.toMap(Establishment::getId, Function.identity()));
+
+            for (int i = 0; i < slice.size() && items.size() <= size; i++) {
+                Establishment establishment = byId.get(slice.get(i));
+                if (establishment != null) {
+                    items.add(establishment);
+                    if (items.size() <= size) {
+                        lastRank = rank + i;
+                    }
+                }
+            }
+            rank += slice.size();
+        }
+
+        boolean hasMore = items.size() > size;
+        if (hasMore) {
+            items = items.subList(0, size);
+        }
+        String nextCursor = hasMore
+                ? new EstablishmentCursor(EstablishmentSort.RELEVANCE, items.get(size - 1).getId(),
+                        String.valueOf(lastRank)).encode()
+                : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Specification of the filters answered by the database; with a text query,
+     * category and city are already applied (accent-insensitively) by the search index
+     */
+    private Specification<Establishment> filterSpecification(EstablishmentFilter filter) {
+        Specification<Establishment> spec = EstablishmentSpecifications.all();
+        boolean indexed = filter.hasQuery();
+        if (hasText(filter.category()) && !indexed) {
+            spec = spec.and(EstablishmentSpecifications.category(filter.category()));
+        }
+        if (hasText(filter.city()) && !indexed) {
+            spec = spec.and(EstablishmentSpecifications.city(filter.city()));
+        }
+        if (hasText(filter.state())) {
+            spec = spec.and(EstablishmentSpecifications.state(filter.state()));
+        }
+        if (filter.acceptingOnly()) {
+            spec = spec.and(EstablishmentSpecifications.acceptingCustomers());
+        }
+        if (filter.queueEnabled() != null) {
+            spec = spec.and(EstablishmentSpecifications.queueEnabled(filter.queueEnabled()));
+        }
+        if (filter.minRating() != null) {
+            spec = spec.and(EstablishmentSpecifications.minRating(filter.minRating()));
+        }
+        if (filter.merchantId() != null) {
+            spec = spec.and(EstablishmentSpecifications.merchant(filter.merchantId()));
+        }
+        return spec;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 
     /**
-     * Search establishments by name or description
+     * Establishments around a point, closest first, with their current queue.
+     * The radius is capped at the configured maximum; without one the closest
+     * establishments within that maximum are returned.
      */
     @Transactional(readOnly = true)
-    public List<Establishment> searchByName(String query) {
-        LogHelper.logMethodEntry(log, "searchByName", query);
-        List<Establishment> establishments = establishmentRepository.findByNameContainingIgnoreCase(query);
-        LogHelper.logMethodExit(log, "searchByName", establishments.size() + " establishments");
-        return establishments;
+    public List<NearbyEstablishment> findNearby(double latitude, double longitude, Double radiusKm, Integer limit,
+                                                String category, boolean acceptingOnly) {
+        LogHelper.logMethodEntry(log, "findNearby", latitude, longitude, radiusKm, limit, category, acceptingOnly);
+
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+        if (radiusKm != null && radiusKm <= 0) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        double radius = radiusKm == null ? maxNearbyRadiusKm : Math.min(radiusKm, maxNearbyRadiusKm);
+
+        List<NearbyMatch> matches = geoIndex.nearest(latitude, longitude, radius, pageSizes.resolve(limit),
+                category, acceptingOnly);
+        Map<Long, Establishment> byId = establishmentRepository.findAllById(
+                        matches.stream().map(NearbyMatch::establishmentId).toList()).stream()
+                .collect(Collectors.toMap(Establishment::getId, Function.identity()));
+
+        List<NearbyEstablishment> nearby = new ArrayList<>(matches.size());
+        for (NearbyMatch match : matches) {
+            Establishment establishment = byId.get(match.establishmentId());
+            if (establishment != null) {
+                QueueSummary queue = queueSummaries.get(establishment.getId());
+                nearby.add(new NearbyEstablishment(establishment, match.distanceKm(), queue.waiting(),
+                        queue.estimatedWaitTime()));
+            }
+        }
+
+        LogHelper.logMethodExit(log, "findNearby", nearby.size() + " establishments");
+        return nearby;
+    }
+
+    /**
+     * Live queue summaries (waiting, called, estimated wait) of several establishments, served from memory
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<Long, QueueSummary> getQueueSummaries(Collection<Long> establishmentIds) {
+        return queueSummaries.get(establishmentIds);
     }
 
     /**
@@ -87,7 +269,16 @@ public class EstablishmentService {
         LogHelper.logMethodEntry(log, "createEstablishment", establishment.getName());
         LogHelper.logOperation(log, "Creating establishment", "name=" + establishment.getName());
 
+        // A new establishment has no reviews yet (rating is NOT NULL)
+        if (establishment.getRating() == null) {
+            establishment.setRating(0.0);
+        }
+        if (establishment.getReviewCount() == null) {
+            establishment.setReviewCount(0);
+        }
+
         Establishment saved = establishmentRepository.save(establishment);
+        eventPublisher.publishEvent(new EstablishmentChangedEvent(saved.getId(), ChangeType.CREATED));
         LogHelper.logDatabaseOperation(log, "INSERT Establishment", saved.getId());
         LogHelper.logMethodExit(log, "createEstablishment", saved.getId());
 
@@ -133,6 +324,7 @@ public class EstablishmentService {
         }
 
         Establishment updated = establishmentRepository.save(establishment);
+        eventPublisher.publishEvent(new EstablishmentChangedEvent(updated.getId(), ChangeType.UPDATED));
         LogHelper.logDatabaseOperation(log, "UPDATE Establishment", updated.getId());
         LogHelper.logMethodExit(log, "updateEstablishment", updated.getId());
 
@@ -150,6 +342,7 @@ public class EstablishmentService {
         }
 
         establishmentRepository.deleteById(id);
+        eventPublisher.publishEvent(new EstablishmentChangedEvent(id, ChangeType.DELETED));
         LogHelper.logDatabaseOperation(log, "DELETE Establishment", id);
         LogHelper.logMethodExit(log, "deleteEstablishment");
     }
@@ -1,6 +1,8 @@
 package com.filae.api.domain.service;
 
 import com.filae.api.domain.entity.Favorite;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.FavoriteChangedEvent;
 import com.filae.api.domain.entity.User;
 import com.filae.api.domain.entity.Establishment;
 import com.filae.api.domain.repository.FavoriteRepository;
@@ -8,6 +10,7 @@ import com.filae.api.domain.repository.UserRepository;
 import com.filae.api.domain.repository.EstablishmentRepository;
 import com.filae.api.infrastructure.logging.LogHelper;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,13 +28,16 @@ public class FavoriteService {
     private final FavoriteRepository favoriteRepository;
     private final UserRepository userRepository;
     private final EstablishmentRepository establishmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FavoriteService(FavoriteRepository favoriteRepository,
                           UserRepository userRepository,
-                          EstablishmentRepository establishmentRepository) {
+                          EstablishmentRepository establishmentRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.favoriteRepository = favoriteRepository;
         this.userRepository = userRepository;
         this.establishmentRepository = establishmentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -57,6 +63,7 @@ public class FavoriteService {
             .build();
 
         Favorite saved = favoriteRepository.save(favorite);
+        eventPublisher.publishEvent(new FavoriteChangedEvent(userId, establishmentId, ChangeType.CREATED));
         LogHelper.logDatabaseOperation(log, "INSERT Favorite", saved.getId());
         LogHelper.logMethodExit(log, "addFavorite", saved.getId());
 
@@ -90,6 +97,8 @@ public class FavoriteService {
         }
 
         favoriteRepository.deleteById(favoriteId);
+        eventPublisher.publishEvent(new FavoriteChangedEvent(
+            userId, favorite.getEstablishment().getId(), ChangeType.DELETED));
         LogHelper.logDatabaseOperation(log, "DELETE Favorite", favoriteId);
         LogHelper.logMethodExit(log, "removeFavorite");
     }
@@ -1,9 +1,13 @@
 package com.filae.api.domain.service;
 
 import com.filae.api.domain.entity.Notification;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.NotificationChangedEvent;
+import com.filae.api.domain.notification.UnreadNotificationCounters;
 import com.filae.api.domain.repository.NotificationRepository;
 import com.filae.api.infrastructure.logging.LogHelper;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,9 +26,15 @@ public class NotificationService {
     private static final Logger log = LogHelper.getLogger(NotificationService.class);
 
     private final NotificationRepository notificationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadNotificationCounters unreadCounters;
 
-    public NotificationService(NotificationRepository notificationRepository) {
+    public NotificationService(NotificationRepository notificationRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               UnreadNotificationCounters unreadCounters) {
         this.notificationRepository = notificationRepository;
+        this.eventPublisher = eventPublisher;
+        this.unreadCounters = unreadCounters;
     }
 
     /**
@@ -33,7 +43,13 @@ public class NotificationService {
     public Notification createNotification(Notification notification) {
         LogHelper.logMethodEntry(log, "createNotification", notification.getUser().getId());
 
+        UnreadNotificationCounters.Change unread = unreadCounters.track(notification.getUser().getId());
         Notification saved = notificationRepository.save(notification);
+        if (!Boolean.TRUE.equals(saved.getIsRead())) {
+            unread.add(1);
+        }
+        eventPublisher.publishEvent(new NotificationChangedEvent(
+            saved.getId(), saved.getUser().getId(), ChangeType.CREATED));
         LogHelper.logDatabaseOperation(log, "INSERT Notification", saved.getId());
         LogHelper.logMethodExit(log, "createNotification", saved.getId());
 
@@ -67,11 +83,11 @@ public class NotificationService {
     }
 
     /**
-     * Get count of unread notifications
+     * Get count of unread notifications (cached per user)
      */
     @Transactional(readOnly = true)
     public Long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        return unreadCounters.get(userId);
     }
 
     /**
@@ -80,9 +96,13 @@ public class NotificationService {
     public Notification markAsRead(Long notificationId) {
         LogHelper.logMethodEntry(log, "markAsRead", notificationId);
 
-        Notification notification = notificationRepository.findById(notificationId)
+        // Locked so concurrent reads of the same notification decrement the unread count once
+        Notification notification = notificationRepository.findByIdForUpdate(notificationId)
             .orElseThrow(() -> new IllegalArgumentException("Notification not found with id: " + notificationId));
 
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            unreadCounters.track(notification.getUser().getId()).add(-1);
+        }
         notification.setIsRead(true);
         notification.setReadAt(LocalDateTime.now());
 
@@ -99,8 +119,10 @@ public class NotificationService {
     public void markAllAsRead(Long userId) {
         LogHelper.logMethodEntry(log, "markAllAsRead", userId);
 
-        notificationRepository.markAllAsRead(userId);
-        LogHelper.logDatabaseOperation(log, "UPDATE All Notifications", userId);
+        UnreadNotificationCounters.Change unread = unreadCounters.track(userId);
+        int updated = notificationRepository.markAllAsRead(userId);
+        unread.add(-updated);
+        LogHelper.logDatabaseOperation(log, "UPDATE All Notifications", userId + " (" + updated + " rows)");
         LogHelper.logMethodExit(log, "markAllAsRead");
     }
 
@@ -110,11 +132,15 @@ public class NotificationService {
     public void deleteNotification(Long notificationId) {
         LogHelper.logMethodEntry(log, "deleteNotification", notificationId);
 
-        if (!notificationRepository.existsById(notificationId)) {
-            throw new IllegalArgumentException("Notification not found with id: " + notificationId);
-        }
+        Notification notification = notificationRepository.findByIdForUpdate(notificationId)
+            .orElseThrow(() -> new IllegalArgumentException("Notification not found with id: " + notificationId));
 
-        notificationRepository.deleteById(notificationId);
+        if (!Boolean.TRUE.equals(notification.getIsRead())) {
+            unreadCounters.track(notification.getUser().getId()).add(-1);
+        }
+        notificationRepository.delete(notification);
+        eventPublisher.publishEvent(new NotificationChangedEvent(
+            notificationId, notification.getUser().getId(), ChangeType.DELETED));
         LogHelper.logDatabaseOperation(log, "DELETE Notification", notificationId);
         LogHelper.logMethodExit(log, "deleteNotification");
     }
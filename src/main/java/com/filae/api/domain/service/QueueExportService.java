@@ -0,0 +1,240 @@
+package com.filae.api.domain.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service for exporting a merchant's queue history (live and archived entries).
+ *
+ * Rows are read through a server-side cursor (JDBC fetch size inside a
+ * read-only transaction) and written to the output as they arrive, so memory
+ * use does not depend on the number of rows exported.
+ */
+@Service
+public class QueueExportService {
+
+    private static final Logger log = LogHelper.getLogger(QueueExportService.class);
+
+    private static final String[] COLUMNS = {
+        "id", "ticket_number", "establishment_id", "establishment_name", "user_id", "user_name",
+        "party_size", "status", "joined_at", "called_at", "finished_at", "cancelled_at"
+    };
+
+    private static final String SELECT_HISTORY =
+            "SELECT q.id, q.ticket_number, q.establishment_id, e.name AS establishment_name, " +
+            "q.user_id, u.name AS user_name, q.party_size, q.status, " +
+            "q.joined_at, q.called_at, q.finished_at, q.cancelled_at " +
+            "FROM queue_history q JOIN establishments e ON e.id = q.establishment_id JOIN users u ON u.id = q.user_id " +
+            "WHERE q.merchant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public QueueExportService(DataSource dataSource,
+                              ObjectMapper objectMapper,
+                              @Value("${queue.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Export format
+     */
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    /**
+     * Stream a merchant's queue history, newest first, optionally limited to
+     * entries joined between from and to (inclusive dates)
+     */
+    @Transactional(readOnly = true)
+    public void exportMerchantHistory(Long merchantId, Format format, LocalDate from, LocalDate to,
+                                      OutputStream out) throws IOException {
+        LogHelper.logMethodEntry(log, "exportMerchantHistory", merchantId, format, from, to);
+
+        StringBuilder sql = new StringBuilder(SELECT_HISTORY);
+        List<Object> params = new ArrayList<>();
+        params.add(merchantId);
+        if (from != null) {
+            sql.append(" AND q.joined_at >= ?");
+            params.add(from.atStartOfDay());
+        }
+        if (to != null) {
+            sql.append(" AND q.joined_at < ?");
+            params.add(to.plusDays(1).atStartOfDay());
+        }
+        sql.append(" ORDER BY q.joined_at DESC, q.id DESC");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long[] rows = {0};
+
+        try {
+            rowWriter.start();
+            jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+                try {
+                    rowWriter.write(rs);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, params.toArray());
+            rowWriter.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+
+        LogHelper.logDatabaseOperation(log, "SELECT Queue history (export)", merchantId);
+        LogHelper.logMethodExit(log, "exportMerchantHistory", rows[0] + " rows");
+    }
+
+    private interface RowWriter {
+        void start() throws IOException;
+
+        void write(ResultSet rs) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException, SQLException {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = value(rs, i);
+                if (value != null) {
+                    writer.write(escape(value.toString()));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start() throws IOException {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                Object value = value(rs, i);
+                generator.writeFieldName(COLUMNS[i - 1]);
+                if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value != null) {
+                    generator.writeString(value.toString());
+                } else {
+                    generator.writeNull();
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * Column value; timestamps as ISO-8601 with offset
+     */
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        String name = COLUMNS[column - 1];
+        if (name.endsWith("_at")) {
+            return rs.getObject(column, OffsetDateTime.class);
+        }
+        return rs.getObject(column);
+    }
+}
@@ -1,20 +1,42 @@
 package com.filae.api.domain.service;
 
-import com.filae.api.domain.entity.Establishment;
 import com.filae.api.domain.entity.Queue;
 import com.filae.api.domain.entity.User;
+import com.filae.api.domain.establishment.CachedEstablishment;
+import com.filae.api.domain.establishment.EstablishmentCache;
+import com.filae.api.domain.exception.ConflictException;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.pagination.CursorPage;
+import com.filae.api.domain.pagination.PageSizes;
+import com.filae.api.domain.queue.EstablishmentLocks;
+import com.filae.api.domain.queue.JoinIdempotencyKeys;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueHistoryCursor;
+import com.filae.api.domain.queue.QueuePositionWriter;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.domain.queue.QueueSummaries;
+import com.filae.api.domain.queue.TicketNumberGenerator;
+import com.filae.api.domain.queue.WaitTimeEstimator;
 import com.filae.api.domain.repository.EstablishmentRepository;
 import com.filae.api.domain.repository.QueueRepository;
 import com.filae.api.domain.repository.UserRepository;
+import com.filae.api.domain.stats.MerchantQueueStats;
+import com.filae.api.domain.stats.MerchantStatsTracker;
 import com.filae.api.infrastructure.logging.LogHelper;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for queue management operations
@@ -25,35 +47,97 @@ public class QueueService {
 
     private static final Logger log = LogHelper.getLogger(QueueService.class);
 
+    /**
+     * Partial unique index allowing one WAITING or CALLED entry per user and establishment
+     */
+    private static final String ACTIVE_ENTRY_INDEX = "uk_queues_active_user_establishment";
+
     private final QueueRepository queueRepository;
     private final EstablishmentRepository establishmentRepository;
+    private final EstablishmentCache establishmentCache;
     private final UserRepository userRepository;
+    private final QueueEngine queueEngine;
+    private final QueuePositionWriter positionWriter;
+    private final EstablishmentLocks establishmentLocks;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PageSizes pageSizes;
+    private final MerchantStatsTracker merchantStats;
+    private final WaitTimeEstimator waitTimeEstimator;
+    private final QueueSummaries queueSummaries;
+    private final TicketNumberGenerator ticketNumberGenerator;
+    private final JoinIdempotencyKeys idempotencyKeys;
 
     public QueueService(QueueRepository queueRepository,
                        EstablishmentRepository establishmentRepository,
-                       UserRepository userRepository) {
+                       EstablishmentCache establishmentCache,
+                       UserRepository userRepository,
+                       QueueEngine queueEngine,
+                       QueuePositionWriter positionWriter,
+                       EstablishmentLocks establishmentLocks,
+                       ApplicationEventPublisher eventPublisher,
+                       PageSizes pageSizes,
+                       MerchantStatsTracker merchantStats,
+                       WaitTimeEstimator waitTimeEstimator,
+                       QueueSummaries queueSummaries,
+                       TicketNumberGenerator ticketNumberGenerator,
+                       JoinIdempotencyKeys idempotencyKeys) {
         this.queueRepository = queueRepository;
         this.establishmentRepository = establishmentRepository;
+        this.establishmentCache = establishmentCache;
         this.userRepository = userRepository;
+        this.queueEngine = queueEngine;
+        this.positionWriter = positionWriter;
+        this.establishmentLocks = establishmentLocks;
+        this.eventPublisher = eventPublisher;
+        this.pageSizes = pageSizes;
+        this.merchantStats = merchantStats;
+        this.waitTimeEstimator = waitTimeEstimator;
+        this.queueSummaries = queueSummaries;
+        this.ticketNumberGenerator = ticketNumberGenerator;
+        this.idempotencyKeys = idempotencyKeys;
     }
 
     /**
-     * Join a queue
+     * Join a queue. A retry with the same idempotency key returns the ticket
+     * created by the first request.
      */
-    public Queue joinQueue(Long establishmentId, Long userId, Integer partySize, String notes) {
+    public QueueSnapshot joinQueue(Long establishmentId, Long userId, Integer partySize, String notes,
+                                   String idempotencyKey) {
         LogHelper.logMethodEntry(log, "joinQueue", establishmentId, userId, partySize);
         LogHelper.logOperation(log, "User joining queue",
             "establishment=" + establishmentId, "user=" + userId, "partySize=" + partySize);
 
-        // Validate establishment
-        Establishment establishment = establishmentRepository.findById(establishmentId)
+        if (idempotencyKey != null && idempotencyKey.length() > JoinIdempotencyKeys.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most "
+                    + JoinIdempotencyKeys.MAX_KEY_LENGTH + " characters");
+        }
+
+        Optional<QueueSnapshot> replay = findIdempotentJoin(userId, idempotencyKey, establishmentId);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        // Serialize with other changes to this establishment's queue
+        establishmentLocks.lockForTransaction(establishmentId);
+
+        // A concurrent retry may have committed while we waited for the lock, possibly on another node
+        replay = findIdempotentJoin(userId, idempotencyKey, establishmentId);
+        if (replay.isEmpty() && establishmentLocks.isDistributed()) {
+            replay = findPersistedJoin(userId, idempotencyKey, establishmentId);
+        }
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        // Validate establishment (from the cache; the entry only references it by id)
+        CachedEstablishment establishment = establishmentCache.get(establishmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Establishment not found with id: " + establishmentId));
 
-        if (!establishment.getQueueEnabled()) {
+        if (!Boolean.TRUE.equals(establishment.queueEnabled())) {
             throw new IllegalStateException("Queue is not enabled for this establishment");
         }
 
-        if (!establishment.getIsAcceptingCustomers()) {
+        if (!Boolean.TRUE.equals(establishment.isAcceptingCustomers())) {
             throw new IllegalStateException("Establishment is not currently accepting customers");
         }
 
@@ -62,81 +146,145 @@ public class QueueService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
 
         // Check if user already in this queue
-        Optional<Queue> existingQueue = queueRepository.findActiveQueuesByUserId(
-                userId, Queue.QueueStatus.WAITING).stream()
-                .filter(q -> q.getEstablishment().getId().equals(establishmentId))
-                .findFirst();
-
-        if (existingQueue.isPresent()) {
-            throw new IllegalStateException("User is already in this queue");
+        if (hasActiveEntry(userId, establishmentId)) {
+            throw new ConflictException("User is already in this queue");
         }
 
         // Calculate position and total
-        List<Queue> activeQueues = queueRepository.findByEstablishmentIdAndStatusOrderByPosition(
-                establishmentId, Queue.QueueStatus.WAITING);
-
-        int position = activeQueues.size() + 1;
-        int totalInQueue = activeQueues.size() + 1;
+        int position = waitingCount(establishmentId) + 1;
+        int totalInQueue = position;
 
         // Generate unique ticket number
-        String ticketNumber = generateTicketNumber(establishment);
+        String ticketNumber = ticketNumberGenerator.next(establishmentId, establishment.name());
 
-        // Estimate wait time (simple: 10 minutes per position)
-        int estimatedWaitTime = position * 10;
+        // Estimate wait time
+        int estimatedWaitTime = queueEngine.estimateWaitTime(establishmentId, position);
 
         // Create queue entry
         Queue queue = Queue.builder()
                 .ticketNumber(ticketNumber)
-                .establishment(establishment)
-                .merchantId(establishment.getMerchant().getId())
+                .establishment(establishmentRepository.getReferenceById(establishmentId))
+                .merchantId(establishment.merchantId())
                 .user(user)
                 .partySize(partySize != null ? partySize : 1)
                 .notes(notes)
+                .joinKey(idempotencyKey)
                 .position(position)
                 .totalInQueue(totalInQueue)
                 .status(Queue.QueueStatus.WAITING)
                 .estimatedWaitTime(estimatedWaitTime)
                 .build();
 
-        Queue saved = queueRepository.save(queue);
+        Queue saved;
+        try {
+            saved = queueRepository.saveAndFlush(queue);
+        } catch (DataIntegrityViolationException e) {
+            // Rejected by the one-active-entry-per-establishment index (e.g. the user was already called)
+            if (String.valueOf(e.getMostSpecificCause().getMessage()).contains(ACTIVE_ENTRY_INDEX)) {
+                throw new ConflictException("User is already in this queue");
+            }
+            throw e;
+        }
+        QueueSnapshot snapshot = QueueSnapshot.from(saved, establishment.name());
+        afterCommit(() -> queueEngine.append(snapshot));
+        if (idempotencyKey != null) {
+            JoinIdempotencyKeys.JoinedTicket joined = new JoinIdempotencyKeys.JoinedTicket(saved.getId(), establishmentId);
+            afterCommit(() -> idempotencyKeys.record(userId, idempotencyKey, joined));
+        }
+        publish(new QueueStatusChangedEvent(snapshot, null, saved.getJoinedAt()));
+
         LogHelper.logDatabaseOperation(log, "INSERT Queue", saved.getId());
         LogHelper.logOperation(log, "Queue joined",
             "ticket=" + ticketNumber, "position=" + position);
         LogHelper.logMethodExit(log, "joinQueue", saved.getId());
 
-        return saved;
+        return snapshot;
     }
 
     /**
-     * Get user's queue entries
+     * Ticket an earlier join with the same idempotency key created
      */
-    @Transactional(readOnly = true)
-    public List<Queue> getUserQueues(Long userId) {
+    private Optional<QueueSnapshot> findIdempotentJoin(Long userId, String idempotencyKey, Long establishmentId) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+
+        return replay(idempotencyKeys.find(userId, idempotencyKey), establishmentId);
+    }
+
+    /**
+     * Ticket an earlier join with the same idempotency key created, looked up
+     * in the database for joins committed by other nodes
+     */
+    private Optional<QueueSnapshot> findPersistedJoin(Long userId, String idempotencyKey, Long establishmentId) {
+        if (idempotencyKey == null) {
+            return Optional.empty();
+        }
+
+        Optional<JoinIdempotencyKeys.JoinedTicket> joined = queueRepository
+                .findFirstByUserIdAndJoinKeyAndJoinedAtAfterOrderByIdDesc(userId, idempotencyKey, idempotencyKeys.validSince())
+                .map(queue -> new JoinIdempotencyKeys.JoinedTicket(queue.getId(), queue.getEstablishment().getId()));
+        joined.ifPresent(ticket -> idempotencyKeys.record(userId, idempotencyKey, ticket));
+        return replay(joined, establishmentId);
+    }
+
+    private Optional<QueueSnapshot> replay(Optional<JoinIdempotencyKeys.JoinedTicket> joined, Long establishmentId) {
+        if (joined.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!joined.get().establishmentId().equals(establishmentId)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used to join another establishment");
+        }
+
+        LogHelper.logOperation(log, "Join replayed", "ticket=" + joined.get().ticketId());
+        return getQueueById(joined.get().ticketId());
+    }
+
+    /**
+     * Whether the user already waits in this queue; checked in the database
+     * when other nodes may change the queue, as their changes reach the engine
+     * asynchronously
+     */
+    private boolean hasActiveEntry(Long userId, Long establishmentId) {
+        if (establishmentLocks.isDistributed()) {
+            return queueRepository.existsByUserIdAndEstablishmentIdAndStatusIn(userId, establishmentId,
+                    List.of(Queue.QueueStatus.WAITING, Queue.QueueStatus.CALLED));
+        }
+        return queueEngine.isWaiting(userId, establishmentId);
+    }
+
+    /**
+     * Get user's queue entries (served from the queue engine)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<QueueSnapshot> getUserQueues(Long userId) {
         LogHelper.logMethodEntry(log, "getUserQueues", userId);
-        List<Queue> queues = queueRepository.findActiveQueuesByUserId(userId, Queue.QueueStatus.WAITING);
+        List<QueueSnapshot> queues = queueEngine.findWaitingByUser(userId);
         LogHelper.logMethodExit(log, "getUserQueues", queues.size() + " queues");
         return queues;
     }
 
     /**
-     * Get establishment's queue
+     * Get establishment's queue (served from the queue engine)
      */
-    @Transactional(readOnly = true)
-    public List<Queue> getEstablishmentQueue(Long establishmentId) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<QueueSnapshot> getEstablishmentQueue(Long establishmentId) {
         LogHelper.logMethodEntry(log, "getEstablishmentQueue", establishmentId);
-        List<Queue> queues = queueRepository.findByEstablishmentIdAndStatusOrderByPosition(
-                establishmentId, Queue.QueueStatus.WAITING);
+        List<QueueSnapshot> queues = queueEngine.getWaiting(establishmentId);
         LogHelper.logMethodExit(log, "getEstablishmentQueue", queues.size() + " in queue");
         return queues;
     }
 
     /**
-     * Get queue by ID
+     * Get queue by ID (waiting entries are served from the queue engine)
      */
-    @Transactional(readOnly = true)
-    public Optional<Queue> getQueueById(Long id) {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<QueueSnapshot> getQueueById(Long id) {
         LogHelper.logMethodEntry(log, "getQueueById", id);
-        Optional<Queue> queue = queueRepository.findById(id);
+        Optional<QueueSnapshot> queue = queueEngine.find(id);
+        if (queue.isEmpty()) {
+            queue = queueRepository.findWithDetailsById(id).map(QueueSnapshot::from);
+        }
         LogHelper.logMethodExit(log, "getQueueById", queue.isPresent() ? "found" : "not found");
         return queue;
     }
@@ -147,12 +295,14 @@ public class QueueService {
     public void cancelQueue(Long queueId, Long userId) {
         LogHelper.logMethodEntry(log, "cancelQueue", queueId, userId);
 
-        Queue queue = queueRepository.findById(queueId)
+        lockQueueOf(queueId);
+
+        Queue queue = queueRepository.findWithDetailsById(queueId)
                 .orElseThrow(() -> new IllegalArgumentException("Queue entry not found with id: " + queueId));
 
         // Verify ownership
         if (!queue.getUser().getId().equals(userId)) {
-            throw new IllegalStateException("User does not own this queue entry");
+            throw new AccessDeniedException("User does not own this queue entry");
         }
 
         // Can only cancel WAITING queues
@@ -165,7 +315,8 @@ public class QueueService {
         queueRepository.save(queue);
 
         // Update positions for remaining queues
-        updateQueuePositions(queue.getEstablishment().getId());
+        updateQueuePositions(queue.getEstablishment().getId(), queueId);
+        publishStatusChange(queue, Queue.QueueStatus.WAITING, queue.getCancelledAt());
 
         LogHelper.logDatabaseOperation(log, "UPDATE Queue - CANCELLED", queueId);
         LogHelper.logOperation(log, "Queue cancelled", "ticket=" + queue.getTicketNumber());
@@ -175,29 +326,25 @@ public class QueueService {
     /**
      * Call next customer in queue (Merchant)
      */
-    public Queue callNext(Long establishmentId) {
+    public QueueSnapshot callNext(Long establishmentId) {
         LogHelper.logMethodEntry(log, "callNext", establishmentId);
 
-        List<Queue> waitingQueues = queueRepository.findByEstablishmentIdAndStatusOrderByPosition(
-                establishmentId, Queue.QueueStatus.WAITING);
+        establishmentLocks.lockForTransaction(establishmentId);
 
-        if (waitingQueues.isEmpty()) {
-            throw new IllegalStateException("No customers in queue");
-        }
-
-        Queue nextQueue = waitingQueues.get(0);
+        Queue nextQueue = nextWaiting(establishmentId);
         nextQueue.setStatus(Queue.QueueStatus.CALLED);
         nextQueue.setCalledAt(LocalDateTime.now());
         Queue updated = queueRepository.save(nextQueue);
 
         // Update positions for remaining queues
-        updateQueuePositions(establishmentId);
+        updateQueuePositions(establishmentId, updated.getId());
+        QueueSnapshot snapshot = publishStatusChange(updated, Queue.QueueStatus.WAITING, updated.getCalledAt());
 
         LogHelper.logDatabaseOperation(log, "UPDATE Queue - CALLED", updated.getId());
         LogHelper.logOperation(log, "Customer called", "ticket=" + updated.getTicketNumber());
         LogHelper.logMethodExit(log, "callNext", updated.getId());
 
-        return updated;
+        return snapshot;
     }
 
     /**
@@ -206,97 +353,200 @@ public class QueueService {
     public void finishQueue(Long queueId) {
         LogHelper.logMethodEntry(log, "finishQueue", queueId);
 
-        Queue queue = queueRepository.findById(queueId)
+        lockQueueOf(queueId);
+
+        Queue queue = queueRepository.findWithDetailsById(queueId)
                 .orElseThrow(() -> new IllegalArgumentException("Queue entry not found with id: " + queueId));
 
+        Queue.QueueStatus previousStatus = queue.getStatus();
+        boolean wasWaiting = previousStatus == Queue.QueueStatus.WAITING;
         queue.setStatus(Queue.QueueStatus.FINISHED);
         queue.setFinishedAt(LocalDateTime.now());
         queueRepository.save(queue);
 
+        if (wasWaiting) {
+            updateQueuePositions(queue.getEstablishment().getId(), queueId);
+        }
+        publishStatusChange(queue, previousStatus, queue.getFinishedAt());
+
         LogHelper.logDatabaseOperation(log, "UPDATE Queue - FINISHED", queueId);
         LogHelper.logOperation(log, "Queue finished", "ticket=" + queue.getTicketNumber());
         LogHelper.logMethodExit(log, "finishQueue");
     }
 
     /**
-     * Update queue positions after cancellation or call
+     * Lock the establishment queue a ticket belongs to
+     */
+    private void lockQueueOf(Long queueId) {
+        Long establishmentId = queueEngine.find(queueId)
+                .map(QueueSnapshot::establishmentId)
+                .or(() -> queueRepository.findEstablishmentIdById(queueId))
+                .orElseThrow(() -> new IllegalArgumentException("Queue entry not found with id: " + queueId));
+        establishmentLocks.lockForTransaction(establishmentId);
+    }
+
+    /**
+     * Number of WAITING entries; counted in the database when other nodes may change the queue
+     */
+    private int waitingCount(Long establishmentId) {
+        if (establishmentLocks.isDistributed()) {
+            Integer count = queueRepository.countByEstablishmentAndStatus(establishmentId, Queue.QueueStatus.WAITING);
+            return count != null ? count : 0;
+        }
+        return queueEngine.length(establishmentId);
+    }
+
+    /**
+     * Next WAITING entry of an establishment, skipping engine entries that are no longer waiting.
+     * When other nodes may change the queue the head row is claimed in the database instead.
      */
-    private void updateQueuePositions(Long establishmentId) {
-        List<Queue> waitingQueues = queueRepository.findByEstablishmentIdAndStatusOrderByPosition(
-                establishmentId, Queue.QueueStatus.WAITING);
-
-        int position = 1;
-        for (Queue queue : waitingQueues) {
-            queue.setPosition(position);
-            queue.setTotalInQueue(waitingQueues.size());
-            queue.setEstimatedWaitTime(position * 10); // Recalculate wait time
-            position++;
+    private Queue nextWaiting(Long establishmentId) {
+        if (establishmentLocks.isDistributed()) {
+            return queueRepository.lockNextWaiting(establishmentId)
+                    .orElseThrow(() -> new IllegalStateException("No customers in queue"));
         }
 
-        queueRepository.saveAll(waitingQueues);
+        while (true) {
+            QueueSnapshot head = queueEngine.peek(establishmentId)
+                    .orElseThrow(() -> new IllegalStateException("No customers in queue"));
+
+            Optional<Queue> queue = queueRepository.findWithDetailsById(head.id());
+            if (queue.isPresent() && queue.get().getStatus() == Queue.QueueStatus.WAITING) {
+                return queue.get();
+            }
+
+            log.warn("Dropping stale queue engine entry: ticket={}", head.ticketNumber());
+            queueEngine.remove(head.id());
+        }
+    }
+
+    /**
+     * Update queue positions after cancellation or call: the entry leaves the
+     * engine once the transaction commits, which shifts every placement behind
+     * it without touching their rows (they are only written behind in
+     * MATERIALIZED mode). Called before the change is published, so that
+     * after-commit listeners of the event already see the entry gone.
+     */
+    private void updateQueuePositions(Long establishmentId, Long removedQueueId) {
+        afterCommit(() -> {
+            queueEngine.remove(removedQueueId);
+            positionWriter.markDirty(establishmentId);
+        });
     }
 
     /**
-     * Generate unique ticket number
+     * Projected entries with placements derived from the queue engine
      */
-    private String generateTicketNumber(Establishment establishment) {
-        // Format: First 2 letters of establishment + random 4 chars
-        String prefix = establishment.getName().substring(0, Math.min(2, establishment.getName().length())).toUpperCase();
-        String suffix = UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-        return prefix + "-" + suffix;
+    private List<QueueSnapshot> withCurrentPlacements(List<QueueSnapshot> queues) {
+        return queues.stream()
+                .map(queueEngine::withCurrentPlacement)
+                .collect(Collectors.toList());
     }
 
     /**
-     * Get all queues for a merchant (sorted by joined date, descending)
+     * Announce a status change; listeners observe it once the transaction commits
+     */
+    private QueueSnapshot publishStatusChange(Queue queue, Queue.QueueStatus previousStatus, LocalDateTime occurredAt) {
+        QueueSnapshot snapshot = QueueSnapshot.from(queue);
+        publish(new QueueStatusChangedEvent(snapshot, previousStatus, occurredAt));
+        return snapshot;
+    }
+
+    /**
+     * Publish a queue change; merchant statistics and the wait time model are
+     * updated on commit, while this establishment's queue is still locked
+     */
+    private void publish(QueueStatusChangedEvent event) {
+        afterCommit(() -> {
+            merchantStats.apply(event);
+            waitTimeEstimator.apply(event);
+            queueSummaries.apply(event);
+        });
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * Run an action once the current transaction has committed
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Get a page of all queues for a merchant (sorted by joined date, descending)
      */
     @Transactional(readOnly = true)
-    public List<Queue> getMerchantAllQueues(Long merchantId) {
-        LogHelper.logMethodEntry(log, "getMerchantAllQueues", merchantId);
+    public CursorPage<QueueSnapshot> getMerchantAllQueues(Long merchantId, String cursor, Integer limit) {
+        LogHelper.logMethodEntry(log, "getMerchantAllQueues", merchantId, cursor, limit);
 
-        List<Queue> queues = queueRepository.findByMerchantIdOrderByJoinedAtDesc(merchantId);
+        int size = pageSizes.resolve(limit);
+        QueueHistoryCursor after = cursor != null ? QueueHistoryCursor.decode(cursor) : null;
+        List<QueueSnapshot> rows = queueRepository.findMerchantHistory(merchantId, null, after, size + 1);
+        CursorPage<QueueSnapshot> page = toHistoryPage(rows, size);
 
-        LogHelper.logMethodExit(log, "getMerchantAllQueues", queues.size() + " queues found");
-        return queues;
+        LogHelper.logMethodExit(log, "getMerchantAllQueues", page.items().size() + " queues found");
+        return page;
     }
 
     /**
      * Get active queues for a merchant (WAITING and CALLED status)
      */
     @Transactional(readOnly = true)
-    public List<Queue> getMerchantActiveQueues(Long merchantId) {
+    public List<QueueSnapshot> getMerchantActiveQueues(Long merchantId) {
         LogHelper.logMethodEntry(log, "getMerchantActiveQueues", merchantId);
 
-        List<Queue> queues = queueRepository.findActiveMerchantQueues(merchantId);
+        List<QueueSnapshot> queues = withCurrentPlacements(queueRepository.findActiveMerchantSnapshots(merchantId));
 
         LogHelper.logMethodExit(log, "getMerchantActiveQueues", queues.size() + " active queues");
         return queues;
     }
 
     /**
-     * Get queues for a specific merchant establishment
+     * Get a page of queues for a specific merchant establishment (sorted by joined date, descending)
      */
     @Transactional(readOnly = true)
-    public List<Queue> getMerchantEstablishmentQueues(Long merchantId, Long establishmentId) {
-        LogHelper.logMethodEntry(log, "getMerchantEstablishmentQueues", merchantId, establishmentId);
+    public CursorPage<QueueSnapshot> getMerchantEstablishmentQueues(Long merchantId, Long establishmentId,
+                                                                    String cursor, Integer limit) {
+        LogHelper.logMethodEntry(log, "getMerchantEstablishmentQueues", merchantId, establishmentId, cursor, limit);
 
-        List<Queue> queues = queueRepository.findByMerchantIdAndEstablishmentIdOrderByPositionAsc(
-                merchantId, establishmentId);
+        int size = pageSizes.resolve(limit);
+        QueueHistoryCursor after = cursor != null ? QueueHistoryCursor.decode(cursor) : null;
+        List<QueueSnapshot> rows = queueRepository.findMerchantHistory(merchantId, establishmentId, after, size + 1);
+        CursorPage<QueueSnapshot> page = toHistoryPage(rows, size);
 
-        LogHelper.logMethodExit(log, "getMerchantEstablishmentQueues", queues.size() + " queues");
-        return queues;
+        LogHelper.logMethodExit(log, "getMerchantEstablishmentQueues", page.items().size() + " queues");
+        return page;
     }
 
     /**
-     * Get queue count for merchant by status
+     * Page of at most size entries from rows fetched with one extra row to detect a next page
      */
-    @Transactional(readOnly = true)
-    public Integer getMerchantQueueCount(Long merchantId, Queue.QueueStatus status) {
-        LogHelper.logMethodEntry(log, "getMerchantQueueCount", merchantId, status);
+    private CursorPage<QueueSnapshot> toHistoryPage(List<QueueSnapshot> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<QueueSnapshot> items = withCurrentPlacements(hasMore ? rows.subList(0, size) : rows);
+        String nextCursor = hasMore ? QueueHistoryCursor.after(items.get(size - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor);
+    }
 
-        Integer count = queueRepository.countMerchantQueuesByStatus(merchantId, status);
+    /**
+     * Get queue statistics for a merchant (served from memory once loaded)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public MerchantQueueStats getMerchantQueueStats(Long merchantId) {
+        LogHelper.logMethodEntry(log, "getMerchantQueueStats", merchantId);
 
-        LogHelper.logMethodExit(log, "getMerchantQueueCount", count);
-        return count != null ? count : 0;
+        MerchantQueueStats stats = merchantStats.getStats(merchantId);
+
+        LogHelper.logMethodExit(log, "getMerchantQueueStats", stats.establishments().size() + " establishments");
+        return stats;
     }
 }
-
@@ -1,9 +1,12 @@
 package com.filae.api.domain.service;
 
 import com.filae.api.domain.entity.User;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.UserChangedEvent;
 import com.filae.api.domain.repository.UserRepository;
 import com.filae.api.infrastructure.logging.LogHelper;
 import org.slf4j.Logger;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,10 +24,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -43,6 +49,7 @@ public class UserService {
         user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), ChangeType.CREATED));
         LogHelper.logDatabaseOperation(log, "INSERT User", savedUser.getId());
         LogHelper.logMethodExit(log, "createUser", savedUser.getId());
 
@@ -104,6 +111,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(updatedUser.getId(), ChangeType.UPDATED));
         LogHelper.logDatabaseOperation(log, "UPDATE User", updatedUser.getId());
         LogHelper.logMethodExit(log, "updateUser", updatedUser.getId());
 
@@ -121,8 +129,8 @@ public class UserService {
         }
 
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, ChangeType.DELETED));
         LogHelper.logDatabaseOperation(log, "DELETE User", id);
         LogHelper.logMethodExit(log, "deleteUser");
     }
 }
-
@@ -0,0 +1,17 @@
+package com.filae.api.domain.stats;
+
+/**
+ * Queue statistics of one establishment
+ *
+ * @param averageWaitMinutes average time from joining to being called, null when nobody was called yet
+ * @param finishedLastHour   entries finished in the last hour
+ */
+public record EstablishmentQueueStats(
+        Long establishmentId,
+        long waiting,
+        long called,
+        long finished,
+        long cancelled,
+        Double averageWaitMinutes,
+        long finishedLastHour) {
+}
@@ -0,0 +1,21 @@
+package com.filae.api.domain.stats;
+
+import java.util.List;
+
+/**
+ * Queue statistics of a merchant across all of its establishments
+ *
+ * @param averageWaitMinutes average time from joining to being called, null when nobody was called yet
+ * @param finishedLastHour   entries finished in the last hour
+ * @param establishments     breakdown per establishment
+ */
+public record MerchantQueueStats(
+        Long merchantId,
+        long waiting,
+        long called,
+        long finished,
+        long cancelled,
+        Double averageWaitMinutes,
+        long finishedLastHour,
+        List<EstablishmentQueueStats> establishments) {
+}
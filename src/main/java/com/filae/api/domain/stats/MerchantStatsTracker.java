@@ -0,0 +1,266 @@
+package com.filae.api.domain.stats;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.queue.EstablishmentLocks;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.infrastructure.cache.CacheMetrics;
+import com.filae.api.infrastructure.logging.LogHelper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-merchant queue statistics kept in memory.
+ *
+ * A merchant's snapshot is loaded with a single GROUP BY over its queue
+ * entries and then kept exact by QueueService, which applies every committed
+ * status change. Applying a change is idempotent per ticket (the snapshot
+ * tracks which tickets are still WAITING or CALLED), so a change that the
+ * load already saw is not counted twice. While a snapshot is warm, reads
+ * never touch the database.
+ *
+ * Snapshots are node-local: with distributed queue locking every read is
+ * aggregated from the database instead.
+ */
+@Component
+public class MerchantStatsTracker {
+
+    private static final Logger log = LogHelper.getLogger(MerchantStatsTracker.class);
+
+    private static final Duration THROUGHPUT_WINDOW = Duration.ofHours(1);
+    private static final int LOAD_ATTEMPTS = 3;
+
+    private static final String AGGREGATE_SQL =
+            "SELECT establishment_id, status, COUNT(*) AS total, " +
+            "COALESCE(SUM(EXTRACT(EPOCH FROM (called_at - joined_at)) * 1000), 0) AS wait_millis, " +
+            "COUNT(called_at) AS called_count, " +
+            "CASE WHEN status IN ('WAITING', 'CALLED') THEN array_agg(id) END AS active_ids, " +
+            "array_agg(finished_at ORDER BY finished_at) FILTER (WHERE finished_at >= ?) AS recent_finishes " +
+            "FROM queue_history WHERE merchant_id = ? GROUP BY establishment_id, status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EstablishmentLocks establishmentLocks;
+    private final Cache<Long, MerchantStats> snapshots;
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public MerchantStatsTracker(JdbcTemplate jdbcTemplate,
+                                EstablishmentLocks establishmentLocks,
+                                CacheMetrics cacheMetrics,
+                                @Value("${stats.merchants.max-size:1000}") long maxSize,
+                                @Value("${stats.merchants.idle-timeout:3600000}") long idleTimeoutMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.establishmentLocks = establishmentLocks;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMillis(idleTimeoutMillis))
+                .recordStats()
+                .build();
+        cacheMetrics.register("merchant-stats", snapshots);
+    }
+
+    /**
+     * Current statistics of a merchant
+     */
+    public MerchantQueueStats getStats(Long merchantId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (establishmentLocks.isDistributed()) {
+            return load(merchantId, now).view(merchantId, now);
+        }
+
+        MerchantStats stats = snapshots.getIfPresent(merchantId);
+        if (stats == null) {
+            stats = loadSnapshot(merchantId, now);
+        }
+        return stats.view(merchantId, now);
+    }
+
+    /**
+     * Apply a committed status change (called by QueueService after commit)
+     */
+    public void apply(QueueStatusChangedEvent event) {
+        Long merchantId = event.ticket().merchantId();
+        versions.computeIfAbsent(merchantId, id -> new AtomicLong()).incrementAndGet();
+
+        MerchantStats stats = snapshots.getIfPresent(merchantId);
+        if (stats != null) {
+            stats.apply(event);
+        }
+    }
+
+    /**
+     * Load and cache a snapshot; retried when changes were committed while
+     * loading, as those may be missing from both the query and the snapshot
+     */
+    private MerchantStats loadSnapshot(Long merchantId, LocalDateTime now) {
+        AtomicLong version = versions.computeIfAbsent(merchantId, id -> new AtomicLong());
+        MerchantStats stats = null;
+        for (int attempt = 1; attempt <= LOAD_ATTEMPTS; attempt++) {
+            long before = version.get();
+            stats = load(merchantId, now);
+            snapshots.put(merchantId, stats);
+            if (version.get() == before) {
+                return stats;
+            }
+            snapshots.invalidate(merchantId);
+            log.debug("Merchant stats changed while loading, retrying: merchant={}", merchantId);
+        }
+        // Still busy: serve the fresh aggregate without caching it
+        return stats;
+    }
+
+    private MerchantStats load(Long merchantId, LocalDateTime now) {
+        MerchantStats stats = new MerchantStats();
+        jdbcTemplate.query(AGGREGATE_SQL, rs -> {
+            stats.load(rs);
+        }, Timestamp.valueOf(now.minus(THROUGHPUT_WINDOW)), merchantId);
+        LogHelper.logDatabaseOperation(log, "SELECT Merchant queue stats (aggregate)", merchantId);
+        return stats;
+    }
+
+    /**
+     * Mutable statistics of one merchant
+     */
+    private static final class MerchantStats {
+
+        private final Map<Long, EstablishmentStats> establishments = new TreeMap<>();
+        private final Map<Long, Queue.QueueStatus> activeTickets = new HashMap<>();
+
+        synchronized void load(ResultSet rs) throws SQLException {
+            Long establishmentId = rs.getLong("establishment_id");
+            Queue.QueueStatus status = Queue.QueueStatus.valueOf(rs.getString("status"));
+            EstablishmentStats stats = establishment(establishmentId);
+
+            stats.add(status, rs.getLong("total"));
+            stats.waitMillis += rs.getLong("wait_millis");
+            stats.calledCount += rs.getLong("called_count");
+
+            Array activeIds = rs.getArray("active_ids");
+            if (activeIds != null) {
+                for (Object id : (Object[]) activeIds.getArray()) {
+                    activeTickets.put(((Number) id).longValue(), status);
+                }
+            }
+            Array recentFinishes = rs.getArray("recent_finishes");
+            if (recentFinishes != null) {
+                for (Object finishedAt : (Object[]) recentFinishes.getArray()) {
+                    stats.recentFinishes.addLast(((Timestamp) finishedAt).toLocalDateTime());
+                }
+            }
+        }
+
+        synchronized void apply(QueueStatusChangedEvent event) {
+            QueueSnapshot ticket = event.ticket();
+            EstablishmentStats stats = establishment(ticket.establishmentId());
+            Queue.QueueStatus current = activeTickets.get(ticket.id());
+
+            switch (event.newStatus()) {
+                case WAITING -> {
+                    if (current == null) {
+                        activeTickets.put(ticket.id(), Queue.QueueStatus.WAITING);
+                        stats.add(Queue.QueueStatus.WAITING, 1);
+                    }
+                }
+                case CALLED -> {
+                    if (current == Queue.QueueStatus.WAITING) {
+                        activeTickets.put(ticket.id(), Queue.QueueStatus.CALLED);
+                        stats.add(Queue.QueueStatus.WAITING, -1);
+                        stats.add(Queue.QueueStatus.CALLED, 1);
+                        stats.waitMillis += Duration.between(ticket.joinedAt(), ticket.calledAt()).toMillis();
+                        stats.calledCount++;
+                    }
+                }
+                case FINISHED, CANCELLED -> {
+                    if (current != null) {
+                        activeTickets.remove(ticket.id());
+                        stats.add(current, -1);
+                        stats.add(event.newStatus(), 1);
+                        if (event.newStatus() == Queue.QueueStatus.FINISHED) {
+                            stats.recentFinishes.addLast(event.occurredAt());
+                        }
+                    }
+                }
+            }
+        }
+
+        synchronized MerchantQueueStats view(Long merchantId, LocalDateTime now) {
+            LocalDateTime windowStart = now.minus(THROUGHPUT_WINDOW);
+            List<EstablishmentQueueStats> breakdown = new ArrayList<>(establishments.size());
+            long waiting = 0, called = 0, finished = 0, cancelled = 0, waitMillis = 0, calledCount = 0, lastHour = 0;
+
+            for (Map.Entry<Long, EstablishmentStats> entry : establishments.entrySet()) {
+                EstablishmentStats stats = entry.getValue();
+                while (!stats.recentFinishes.isEmpty() && stats.recentFinishes.peekFirst().isBefore(windowStart)) {
+                    stats.recentFinishes.pollFirst();
+                }
+
+                breakdown.add(stats.view(entry.getKey()));
+                waiting += stats.waiting;
+                called += stats.called;
+                finished += stats.finished;
+                cancelled += stats.cancelled;
+                waitMillis += stats.waitMillis;
+                calledCount += stats.calledCount;
+                lastHour += stats.recentFinishes.size();
+            }
+
+            return new MerchantQueueStats(merchantId, waiting, called, finished, cancelled,
+                    averageMinutes(waitMillis, calledCount), lastHour, breakdown);
+        }
+
+        private EstablishmentStats establishment(Long establishmentId) {
+            return establishments.computeIfAbsent(establishmentId, id -> new EstablishmentStats());
+        }
+    }
+
+    /**
+     * Mutable statistics of one establishment, guarded by its MerchantStats
+     */
+    private static final class EstablishmentStats {
+
+        private long waiting;
+        private long called;
+        private long finished;
+        private long cancelled;
+        private long waitMillis;
+        private long calledCount;
+        private final Deque<LocalDateTime> recentFinishes = new ArrayDeque<>();
+
+        void add(Queue.QueueStatus status, long amount) {
+            switch (status) {
+                case WAITING -> waiting += amount;
+                case CALLED -> called += amount;
+                case FINISHED -> finished += amount;
+                case CANCELLED -> cancelled += amount;
+            }
+        }
+
+        EstablishmentQueueStats view(Long establishmentId) {
+            return new EstablishmentQueueStats(establishmentId, waiting, called, finished, cancelled,
+                    averageMinutes(waitMillis, calledCount), recentFinishes.size());
+        }
+    }
+
+    private static Double averageMinutes(long totalMillis, long count) {
+        return count == 0 ? null : totalMillis / (double) count / 60_000d;
+    }
+}
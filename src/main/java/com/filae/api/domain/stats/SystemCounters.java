@@ -0,0 +1,209 @@
+package com.filae.api.domain.stats;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.domain.event.FavoriteChangedEvent;
+import com.filae.api.domain.event.NotificationChangedEvent;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.event.UserChangedEvent;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * System-wide row counters served from memory.
+ *
+ * Counters are moved by committed domain events and periodically reconciled
+ * against the database, which corrects any drift from changes made outside
+ * the services (cascading deletes, manual SQL, other nodes).
+ */
+@Component
+public class SystemCounters implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(SystemCounters.class);
+
+    private static final String COUNT_TABLES_SQL =
+            "SELECT (SELECT COUNT(*) FROM users), (SELECT COUNT(*) FROM establishments), " +
+            "(SELECT COUNT(*) FROM notifications), (SELECT COUNT(*) FROM favorites)";
+
+    private static final String COUNT_QUEUES_SQL = "SELECT status, COUNT(*) FROM queue_history GROUP BY status";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Counter users = new Counter();
+    private final Counter establishments = new Counter();
+    private final Counter notifications = new Counter();
+    private final Counter favorites = new Counter();
+    private final Map<Queue.QueueStatus, Counter> queues = new EnumMap<>(Queue.QueueStatus.class);
+
+    private volatile LocalDateTime reconciledAt;
+
+    public SystemCounters(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (Queue.QueueStatus status : Queue.QueueStatus.values()) {
+            queues.put(status, new Counter());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reconcile();
+    }
+
+    public long getUsers() {
+        return users.get();
+    }
+
+    public long getEstablishments() {
+        return establishments.get();
+    }
+
+    public long getNotifications() {
+        return notifications.get();
+    }
+
+    public long getFavorites() {
+        return favorites.get();
+    }
+
+    /**
+     * Number of queue entries with a status
+     */
+    public long getQueues(Queue.QueueStatus status) {
+        return queues.get(status).get();
+    }
+
+    /**
+     * Queue entries still in line or being served (WAITING and CALLED)
+     */
+    public long getActiveQueues() {
+        return getQueues(Queue.QueueStatus.WAITING) + getQueues(Queue.QueueStatus.CALLED);
+    }
+
+    /**
+     * When the counters were last reconciled against the database
+     */
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        apply(users, event.type());
+    }
+
+    @TransactionalEventListener
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        apply(establishments, event.type());
+    }
+
+    @TransactionalEventListener
+    public void onNotificationChanged(NotificationChangedEvent event) {
+        apply(notifications, event.type());
+    }
+
+    @TransactionalEventListener
+    public void onFavoriteChanged(FavoriteChangedEvent event) {
+        apply(favorites, event.type());
+    }
+
+    @TransactionalEventListener
+    public void onQueueStatusChanged(QueueStatusChangedEvent event) {
+        if (event.previousStatus() != null) {
+            queues.get(event.previousStatus()).add(-1);
+        }
+        queues.get(event.newStatus()).add(1);
+    }
+
+    /**
+     * Account for notifications written or deleted in bulk (pipeline, retention), which publish no events
+     */
+    public void adjustNotifications(long delta) {
+        notifications.add(delta);
+    }
+
+    /**
+     * Reset every counter to the current row counts
+     */
+    @Scheduled(initialDelayString = "${stats.reconcile-interval:300000}",
+               fixedDelayString = "${stats.reconcile-interval:300000}")
+    public void reconcile() {
+        LogHelper.logMethodEntry(log, "reconcile");
+
+        try {
+            // Changes applied from here on are kept on top of the new counts
+            users.fold();
+            establishments.fold();
+            notifications.fold();
+            favorites.fold();
+            queues.values().forEach(Counter::fold);
+
+            jdbcTemplate.query(COUNT_TABLES_SQL, rs -> {
+                users.reset(rs.getLong(1));
+                establishments.reset(rs.getLong(2));
+                notifications.reset(rs.getLong(3));
+                favorites.reset(rs.getLong(4));
+            });
+
+            Map<Queue.QueueStatus, Long> queueCounts = new EnumMap<>(Queue.QueueStatus.class);
+            jdbcTemplate.query(COUNT_QUEUES_SQL, rs -> {
+                queueCounts.put(Queue.QueueStatus.valueOf(rs.getString(1)), rs.getLong(2));
+            });
+            queues.forEach((status, counter) -> counter.reset(queueCounts.getOrDefault(status, 0L)));
+
+            reconciledAt = LocalDateTime.now();
+            LogHelper.logDatabaseOperation(log, "COUNT system stats (reconcile)", "ok");
+        } catch (Exception e) {
+            LogHelper.logError(log, "reconcile system counters", e);
+        }
+
+        LogHelper.logMethodExit(log, "reconcile");
+    }
+
+    private void apply(Counter counter, ChangeType type) {
+        if (type == ChangeType.CREATED) {
+            counter.add(1);
+        } else if (type == ChangeType.DELETED) {
+            counter.add(-1);
+        }
+    }
+
+    /**
+     * Count reconciled from the database plus the changes seen since
+     */
+    private static final class Counter {
+
+        private volatile long base;
+        private final LongAdder delta = new LongAdder();
+
+        long get() {
+            return base + delta.sum();
+        }
+
+        void add(long amount) {
+            delta.add(amount);
+        }
+
+        /**
+         * Move pending changes into the base, keeping the value, so that only
+         * changes applied after this point survive the next reset
+         */
+        synchronized void fold() {
+            base += delta.sumThenReset();
+        }
+
+        synchronized void reset(long count) {
+            base = count;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.filae.api.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registry of the application's in-process caches, so their hit/miss and
+ * eviction statistics can be reported in one place.
+ * Caches must be built with recordStats() to report anything but their size.
+ */
+@Component
+public class CacheMetrics {
+
+    private final Map<String, Cache<?, ?>> caches = new ConcurrentSkipListMap<>();
+
+    /**
+     * Register a cache under a unique name
+     */
+    public void register(String name, Cache<?, ?> cache) {
+        if (caches.putIfAbsent(name, cache) != null) {
+            throw new IllegalStateException("Cache already registered: " + name);
+        }
+    }
+
+    /**
+     * Registered caches by name
+     */
+    public Map<String, Cache<?, ?>> getCaches() {
+        return Collections.unmodifiableMap(caches);
+    }
+}
@@ -0,0 +1,54 @@
+package com.filae.api.infrastructure.cache;
+
+import com.filae.api.domain.establishment.EstablishmentCache;
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.domain.search.EstablishmentGeoIndex;
+import com.filae.api.domain.search.EstablishmentSearchIndex;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cross-node invalidation of establishment state.
+ *
+ * Every establishment change is announced on the establishment_changed
+ * channel; other nodes evict the establishment from their cache and refresh it
+ * in their search and geo indexes. Whenever the listening connection is
+ * (re)established the whole cache is dropped, since notifications sent while
+ * it was down are lost.
+ */
+@Component
+public class EstablishmentChangeNotifications {
+
+    private static final String CHANNEL = "establishment_changed";
+
+    private final PostgresNotifications notifications;
+    private final EstablishmentCache establishmentCache;
+    private final EstablishmentSearchIndex searchIndex;
+    private final EstablishmentGeoIndex geoIndex;
+
+    public EstablishmentChangeNotifications(PostgresNotifications notifications,
+                                            EstablishmentCache establishmentCache,
+                                            EstablishmentSearchIndex searchIndex,
+                                            EstablishmentGeoIndex geoIndex) {
+        this.notifications = notifications;
+        this.establishmentCache = establishmentCache;
+        this.searchIndex = searchIndex;
+        this.geoIndex = geoIndex;
+        notifications.subscribe(CHANNEL, this::handle, establishmentCache::invalidateAll);
+    }
+
+    /**
+     * Queue a notification in the changing transaction
+     */
+    @EventListener
+    public void onEstablishmentChanged(EstablishmentChangedEvent event) {
+        notifications.send(CHANNEL, String.valueOf(event.establishmentId()));
+    }
+
+    void handle(String payload) {
+        Long establishmentId = Long.parseLong(payload);
+        establishmentCache.invalidate(establishmentId);
+        searchIndex.refresh(establishmentId, false);
+        geoIndex.refresh(establishmentId, false);
+    }
+}
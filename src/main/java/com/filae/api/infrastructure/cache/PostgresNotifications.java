@@ -0,0 +1,166 @@
+package com.filae.api.infrastructure.cache;
+
+import com.filae.api.infrastructure.logging.LogHelper;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Node-to-node change notifications over Postgres LISTEN/NOTIFY.
+ *
+ * Notifications are sent from inside the changing transaction, so Postgres
+ * delivers them only if the change commits, and in commit order. One listener
+ * thread per node, holding its own connection, LISTENs on every subscribed
+ * channel and hands each payload to its channel's handler; a node never sees
+ * its own notifications, which its after-commit listeners already handled.
+ *
+ * Notifications sent while the listening connection is down are lost, so each
+ * subscriber is told whenever the connection is (re)established and must
+ * resynchronize from the database.
+ */
+@Component
+public class PostgresNotifications implements SmartInitializingSingleton {
+
+    private static final Logger log = LogHelper.getLogger(PostgresNotifications.class);
+
+    private static final char SEPARATOR = ':';
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final int pollMillis;
+    private final long reconnectDelayMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresNotifications(JdbcTemplate jdbcTemplate,
+                                 DataSourceProperties dataSourceProperties,
+                                 @Value("${cluster.notifications.enabled:true}") boolean enabled,
+                                 @Value("${cluster.notifications.poll-interval:500}") int pollMillis,
+                                 @Value("${cluster.notifications.reconnect-delay:5000}") long reconnectDelayMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.pollMillis = pollMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    /**
+     * Subscribe to a channel before the listener starts (i.e. from a constructor)
+     *
+     * @param handler     called with the payload of every notification sent by another node
+     * @param onConnected called each time the listening connection is (re)established
+     */
+    public void subscribe(String channel, Consumer<String> handler, Runnable onConnected) {
+        subscriptions.put(channel, new Subscription(handler, onConnected));
+    }
+
+    /**
+     * Queue a notification in the current transaction; Postgres delivers it on commit
+     */
+    public void send(String channel, String payload) {
+        if (enabled) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+            }, channel, nodeId + SEPARATOR + payload);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled || subscriptions.isEmpty()) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "postgres-notifications");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String channel : subscriptions.keySet()) {
+                        statement.execute("LISTEN " + channel);
+                    }
+                }
+                subscriptions.forEach((channel, subscription) -> run(channel, subscription.onConnected()));
+                LogHelper.logOperation(log, "Listening for change notifications",
+                    "node=" + nodeId, "channels=" + subscriptions.keySet());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getName(), notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    LogHelper.logError(log, "listen for change notifications", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void dispatch(String channel, String payload) {
+        Subscription subscription = subscriptions.get(channel);
+        int separator = payload.indexOf(SEPARATOR);
+        if (subscription == null || separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+
+        String body = payload.substring(separator + 1);
+        run(channel, () -> subscription.handler().accept(body));
+    }
+
+    private void run(String channel, Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            LogHelper.logError(log, "apply change notification", e, "channel=" + channel);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record Subscription(Consumer<String> handler, Runnable onConnected) {
+    }
+}
@@ -0,0 +1,120 @@
+package com.filae.api.infrastructure.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.queue.EstablishmentLocks;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueSummaries;
+import com.filae.api.domain.queue.WaitTimeEstimator;
+import com.filae.api.domain.stats.MerchantStatsTracker;
+import com.filae.api.domain.stats.SystemCounters;
+import com.filae.api.infrastructure.logging.LogHelper;
+import com.filae.api.infrastructure.websocket.QueueUpdatePublisher;
+import org.slf4j.Logger;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replicates committed queue changes to the other nodes.
+ *
+ * The queue engine, merchant statistics, wait time models, queue summaries,
+ * system counters and push subscriptions are held per node. In distributed
+ * mode every queue change is announced on the queue_changed channel with its
+ * full event, and other nodes apply it to the same in-memory state the
+ * originating node updates after commit. Notifications arrive in commit
+ * order, which for one establishment is the order its advisory lock was
+ * taken.
+ *
+ * Side effects that write to the database (user notifications, materialized
+ * positions) stay with the originating node. Whenever the listening
+ * connection is (re)established the engine is rebuilt and the summaries
+ * reconciled, since changes announced while it was down are lost.
+ */
+@Component
+public class QueueChangeNotifications {
+
+    private static final Logger log = LogHelper.getLogger(QueueChangeNotifications.class);
+
+    private static final String CHANNEL = "queue_changed";
+
+    private final PostgresNotifications notifications;
+    private final ObjectMapper objectMapper;
+    private final QueueEngine queueEngine;
+    private final MerchantStatsTracker merchantStats;
+    private final WaitTimeEstimator waitTimeEstimator;
+    private final QueueSummaries queueSummaries;
+    private final SystemCounters systemCounters;
+    private final QueueUpdatePublisher queueUpdatePublisher;
+    private final boolean enabled;
+
+    public QueueChangeNotifications(PostgresNotifications notifications,
+                                    ObjectMapper objectMapper,
+                                    EstablishmentLocks establishmentLocks,
+                                    QueueEngine queueEngine,
+                                    MerchantStatsTracker merchantStats,
+                                    WaitTimeEstimator waitTimeEstimator,
+                                    QueueSummaries queueSummaries,
+                                    SystemCounters systemCounters,
+                                    QueueUpdatePublisher queueUpdatePublisher) {
+        this.notifications = notifications;
+        this.objectMapper = objectMapper;
+        this.queueEngine = queueEngine;
+        this.merchantStats = merchantStats;
+        this.waitTimeEstimator = waitTimeEstimator;
+        this.queueSummaries = queueSummaries;
+        this.systemCounters = systemCounters;
+        this.queueUpdatePublisher = queueUpdatePublisher;
+        this.enabled = establishmentLocks.isDistributed();
+        if (enabled) {
+            notifications.subscribe(CHANNEL, this::handle, this::resynchronize);
+        }
+    }
+
+    /**
+     * Queue a notification in the changing transaction
+     */
+    @EventListener
+    public void onQueueStatusChanged(QueueStatusChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            notifications.send(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Queue change cannot be serialized", e);
+        }
+    }
+
+    /**
+     * Apply a change committed by another node
+     */
+    void handle(String payload) {
+        QueueStatusChangedEvent event;
+        try {
+            event = objectMapper.readValue(payload, QueueStatusChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed queue change notification", e);
+        }
+
+        // A rebuild right after (re)connecting may already have loaded the entry
+        if (event.previousStatus() == null && queueEngine.find(event.ticket().id()).isEmpty()) {
+            queueEngine.append(event.ticket());
+        } else if (event.previousStatus() == Queue.QueueStatus.WAITING) {
+            queueEngine.remove(event.ticket().id());
+        }
+        merchantStats.apply(event);
+        waitTimeEstimator.apply(event);
+        queueSummaries.apply(event);
+        systemCounters.onQueueStatusChanged(event);
+        queueUpdatePublisher.onQueueStatusChanged(event);
+
+        log.debug("Applied queue change from another node: ticket={}", event.ticket().id());
+    }
+
+    private void resynchronize() {
+        queueEngine.rebuild();
+        queueSummaries.reconcile();
+    }
+}
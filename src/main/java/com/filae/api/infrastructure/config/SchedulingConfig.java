@@ -0,0 +1,13 @@
+package com.filae.api.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling Configuration
+ * Enables background jobs (write-behind flushes, periodic maintenance)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
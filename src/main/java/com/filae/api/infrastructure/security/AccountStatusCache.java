@@ -0,0 +1,70 @@
+package com.filae.api.infrastructure.security;
+
+import com.filae.api.domain.entity.User;
+import com.filae.api.domain.event.UserChangedEvent;
+import com.filae.api.infrastructure.cache.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Revocation check for JWT-authenticated requests.
+ *
+ * Token claims are trusted for the token's lifetime, so a deactivated, deleted
+ * or re-typed user would keep access until it expires. Each request also
+ * checks the account's current active flag and type, read by primary key and
+ * cached by user id for a short time. Changes made through UserService evict
+ * the entry on commit; other nodes and direct database edits are picked up
+ * within the TTL.
+ */
+@Component
+public class AccountStatusCache {
+
+    private static final String SELECT_STATUS = "SELECT is_active, user_type FROM users WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Optional<AccountStatus>> statuses;
+
+    public AccountStatusCache(JdbcTemplate jdbcTemplate,
+                              CacheMetrics cacheMetrics,
+                              @Value("${security.account-status.max-size:100000}") long maxSize,
+                              @Value("${security.account-status.ttl:30000}") long ttlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        cacheMetrics.register("account-status", statuses);
+    }
+
+    /**
+     * Whether the account behind a token still exists, is active and has the type the token was issued for
+     */
+    public boolean isCurrent(AuthenticatedUser user) {
+        return statuses.get(user.id(), this::load)
+                .filter(status -> status.active() && status.userType() == user.userType())
+                .isPresent();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onUserChanged(UserChangedEvent event) {
+        statuses.invalidate(event.userId());
+    }
+
+    private Optional<AccountStatus> load(Long userId) {
+        return jdbcTemplate.query(SELECT_STATUS, rs -> rs.next()
+                ? Optional.of(new AccountStatus(rs.getBoolean(1), User.UserType.valueOf(rs.getString(2))))
+                : Optional.empty(), userId);
+    }
+
+    private record AccountStatus(boolean active, User.UserType userType) {
+    }
+}
@@ -15,6 +15,10 @@ import java.util.Collections;
 
 /**
  * Custom UserDetailsService implementation for Spring Security
+ *
+ * Only used for login, so the account (and its password hash) is read fresh
+ * each time rather than kept in memory; authenticated requests check the
+ * account through AccountStatusCache instead.
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -1,97 +1,163 @@
 package com.filae.api.infrastructure.security;
 
+import com.filae.api.domain.entity.User;
+import com.filae.api.infrastructure.cache.CacheMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT Token Provider for generating and validating JWT tokens
  * Uses JJWT 0.12.3 with updated API
+ *
+ * Tokens carry the user id, type and active flag so requests can be
+ * authenticated from the verified claims without loading the user (the
+ * account's current status is still checked by AccountStatusCache). Verified tokens are cached by
+ * their SHA-256 hash until they expire (at most jwt.cache.ttl), so repeat
+ * requests with the same bearer token skip signature verification and
+ * claim parsing.
  */
 @Component
 public class JwtTokenProvider {
 
     private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_USER_TYPE = "type";
+    static final String CLAIM_ACTIVE = "active";
 
-    @Value("${jwt.expiration:86400000}") // 24 hours default
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    /**
-     * Generate JWT token from authentication
-     */
-    public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        return generateToken(userDetails.getUsername());
+    public JwtTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expiration:86400000}") long jwtExpiration, // 24 hours default
+                            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                            @Value("${jwt.cache.ttl:300000}") long cacheTtlMillis,
+                            CacheMetrics cacheMetrics) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry(TimeUnit.MILLISECONDS.toNanos(cacheTtlMillis)))
+                .recordStats()
+                .build();
+        cacheMetrics.register("jwt-tokens", verifiedTokens);
     }
 
     /**
-     * Generate JWT token from username
+     * Generate JWT token for a user
      */
-    public String generateToken(String username) {
+    public String generateToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
-                .subject(username)
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_USER_TYPE, user.getUserType().name())
+                .claim(CLAIM_ACTIVE, user.getIsActive())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     /**
-     * Get username from JWT token
+     * Verify a token and build the principal from its claims.
+     * Empty when the token is invalid, expired or lacks the user claims.
      */
-    public String getUsernameFromToken(String token) {
+    public Optional<AuthenticatedUser> getAuthenticatedUser(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return Optional.of(cached.user());
+        }
+
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
 
-            return claims.getSubject();
+            Optional<AuthenticatedUser> user = toAuthenticatedUser(claims);
+            user.ifPresent(u -> verifiedTokens.put(key, new VerifiedToken(u, claims.getExpiration().getTime())));
+            return user;
         } catch (Exception e) {
-            log.error("Error parsing token: {}", e.getMessage());
-            throw new RuntimeException("Invalid token", e);
+            log.error("Invalid JWT token: {}", e.getMessage());
         }
+        return Optional.empty();
+    }
+
+    private Optional<AuthenticatedUser> toAuthenticatedUser(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        String userType = claims.get(CLAIM_USER_TYPE, String.class);
+        if (userId == null || userType == null || claims.getExpiration() == null) {
+            log.warn("JWT token without user claims: {}", claims.getSubject());
+            return Optional.empty();
+        }
+
+        return Optional.of(new AuthenticatedUser(
+                userId.longValue(),
+                claims.getSubject(),
+                User.UserType.valueOf(userType),
+                Boolean.TRUE.equals(claims.get(CLAIM_ACTIVE, Boolean.class))
+        ));
     }
 
     /**
-     * Validate JWT token
+     * Cache key for a token; the raw token is never kept in memory
      */
-    public boolean validateToken(String token) {
+    private static String hash(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return false;
     }
 
     /**
-     * Get signing key from secret
+     * Principal of a verified token and the token's expiry (epoch millis)
      */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record VerifiedToken(AuthenticatedUser user, long expiresAt) {
     }
-}
 
+    /**
+     * Expires cached tokens at the configured TTL or at the token's own expiry, whichever is sooner
+     */
+    private record UntilTokenExpiry(long maxTtlNanos) implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(value.expiresAt() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
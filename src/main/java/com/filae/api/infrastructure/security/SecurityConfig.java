@@ -1,5 +1,6 @@
 package com.filae.api.infrastructure.security;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -41,6 +42,11 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/**", "/auth/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
 
+                // WebSocket handshake - STOMP sessions authenticate with the JWT on CONNECT
+                .requestMatchers("/api/ws/**", "/ws/**").permitAll()
+                // Async dispatches of already authorized streaming responses (SSE)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Protected endpoints - authentication required
                 .requestMatchers("/api/health/stats", "/health/stats").authenticated()
 
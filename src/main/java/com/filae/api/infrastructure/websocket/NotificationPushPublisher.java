@@ -0,0 +1,59 @@
+package com.filae.api.infrastructure.websocket;
+
+import com.filae.api.application.dto.notification.NotificationPushMessage;
+import com.filae.api.domain.event.NotificationsDeliveredEvent;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pushes newly written notifications and the unread count to their user.
+ *
+ * Destination: /topic/users/{id}/notifications (only the user itself may subscribe)
+ */
+@Component
+public class NotificationPushPublisher {
+
+    private static final Logger log = LogHelper.getLogger(NotificationPushPublisher.class);
+
+    static final String EVENT_NAME = "notification";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final QueueSseEmitters sseEmitters;
+
+    public NotificationPushPublisher(SimpMessagingTemplate messagingTemplate, QueueSseEmitters sseEmitters) {
+        this.messagingTemplate = messagingTemplate;
+        this.sseEmitters = sseEmitters;
+    }
+
+    public static String userDestination(Long userId) {
+        return "/topic/users/" + userId + "/notifications";
+    }
+
+    @EventListener
+    public void onNotificationsDelivered(NotificationsDeliveredEvent event) {
+        NotificationPushMessage message = NotificationPushMessage.builder()
+            .unreadCount(event.unreadCount())
+            .notifications(event.notifications().stream()
+                .map(request -> NotificationPushMessage.Item.builder()
+                    .type(request.type().toString())
+                    .title(request.title())
+                    .message(request.message())
+                    .ticketId(request.ticketId())
+                    .establishmentId(request.establishmentId())
+                    .createdAt(request.createdAt())
+                    .build())
+                .toList())
+            .build();
+
+        String destination = userDestination(event.userId());
+        try {
+            messagingTemplate.convertAndSend(destination, message);
+            sseEmitters.send(destination, EVENT_NAME, message);
+        } catch (Exception e) {
+            LogHelper.logError(log, "push notifications", e, "user=" + event.userId());
+        }
+    }
+}
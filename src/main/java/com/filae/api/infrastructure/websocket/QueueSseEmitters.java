@@ -0,0 +1,79 @@
+package com.filae.api.infrastructure.websocket;
+
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-Sent Events fallback for clients that cannot use WebSocket/STOMP.
+ * Emitters subscribe to the same destinations as the STOMP topics.
+ */
+@Component
+public class QueueSseEmitters {
+
+    private static final Logger log = LogHelper.getLogger(QueueSseEmitters.class);
+
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public QueueSseEmitters(@Value("${queue.push.sse-timeout:1800000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Open a stream for a destination
+     */
+    public SseEmitter subscribe(String destination) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Set<SseEmitter> subscribers = emitters.computeIfAbsent(destination, d -> ConcurrentHashMap.newKeySet());
+        subscribers.add(emitter);
+
+        Runnable unsubscribe = () -> unsubscribe(destination, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        log.debug("SSE subscribed to {}", destination);
+        return emitter;
+    }
+
+    /**
+     * Send a queue update to every stream open on a destination
+     */
+    public void send(String destination, Object payload) {
+        send(destination, "queue-update", payload);
+    }
+
+    /**
+     * Send a named event to every stream open on a destination
+     */
+    public void send(String destination, String eventName, Object payload) {
+        Set<SseEmitter> subscribers = emitters.get(destination);
+        if (subscribers == null) {
+            return;
+        }
+
+        for (SseEmitter emitter : subscribers) {
+            try {
+                emitter.send(SseEmitter.event().name(eventName).data(payload));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping SSE subscriber on {}: {}", destination, e.getMessage());
+                unsubscribe(destination, emitter);
+            }
+        }
+    }
+
+    private void unsubscribe(String destination, SseEmitter emitter) {
+        emitters.computeIfPresent(destination, (d, subscribers) -> {
+            subscribers.remove(emitter);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.filae.api.infrastructure.websocket;
+
+import com.filae.api.application.dto.queue.QueueUpdateMessage;
+import com.filae.api.application.dto.queue.TicketUpdateMessage;
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.infrastructure.logging.LogHelper;
+import org.slf4j.Logger;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes queue position/ETA deltas to STOMP topics and SSE streams.
+ *
+ * Committed queue changes only mark their establishment dirty; a fixed tick
+ * then publishes at most one frame per destination with every ticket whose
+ * position or ETA changed since the previous frame, so a burst of changes in
+ * one queue is coalesced.
+ *
+ * Destinations:
+ * - /topic/establishments/{id}/queue - changes in an establishment's queue
+ * - /topic/tickets/{id}              - changes to a single ticket
+ */
+@Component
+public class QueueUpdatePublisher {
+
+    private static final Logger log = LogHelper.getLogger(QueueUpdatePublisher.class);
+
+    private final QueueEngine queueEngine;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final QueueSseEmitters sseEmitters;
+
+    private final Set<Long> dirtyEstablishments = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Map<Long, QueueSnapshot>> pendingStatusChanges = new ConcurrentHashMap<>();
+    // Last published placement per establishment and ticket; only touched by the publishing tick
+    private final Map<Long, Map<Long, Long>> lastPublished = new HashMap<>();
+
+    public QueueUpdatePublisher(QueueEngine queueEngine,
+                                SimpMessagingTemplate messagingTemplate,
+                                QueueSseEmitters sseEmitters) {
+        this.queueEngine = queueEngine;
+        this.messagingTemplate = messagingTemplate;
+        this.sseEmitters = sseEmitters;
+    }
+
+    public static String establishmentDestination(Long establishmentId) {
+        return "/topic/establishments/" + establishmentId + "/queue";
+    }
+
+    public static String ticketDestination(Long queueId) {
+        return "/topic/tickets/" + queueId;
+    }
+
+    /**
+     * Record a committed change to be published on the next tick
+     */
+    @TransactionalEventListener
+    public void onQueueStatusChanged(QueueStatusChangedEvent event) {
+        if (event.newStatus() != Queue.QueueStatus.WAITING) {
+            // Added under the map's lock, so a tick that has removed the pending map never misses it
+            pendingStatusChanges.compute(event.establishmentId(), (id, pending) -> {
+                Map<Long, QueueSnapshot> changes = pending != null ? pending : new HashMap<>();
+                changes.put(event.ticket().id(), event.ticket());
+                return changes;
+            });
+        }
+        dirtyEstablishments.add(event.establishmentId());
+    }
+
+    /**
+     * Publish one coalesced frame per changed establishment and ticket
+     */
+    @Scheduled(fixedDelayString = "${queue.push.interval:1000}")
+    public synchronized void publishPending() {
+        Iterator<Long> iterator = dirtyEstablishments.iterator();
+        while (iterator.hasNext()) {
+            Long establishmentId = iterator.next();
+            iterator.remove();
+
+            try {
+                publish(establishmentId);
+            } catch (Exception e) {
+                LogHelper.logError(log, "publish queue update", e, "establishment=" + establishmentId);
+            }
+        }
+    }
+
+    private void publish(Long establishmentId) {
+        List<QueueSnapshot> waiting = queueEngine.getWaiting(establishmentId);
+        Map<Long, QueueSnapshot> statusChanges = pendingStatusChanges.remove(establishmentId);
+        Map<Long, Long> previous = lastPublished.getOrDefault(establishmentId, Collections.emptyMap());
+        Map<Long, Long> current = new HashMap<>();
+
+        List<TicketUpdateMessage> changes = new ArrayList<>();
+        for (QueueSnapshot entry : waiting) {
+            long placement = ((long) entry.position() << 32) | (entry.estimatedWaitTime() & 0xFFFFFFFFL);
+            current.put(entry.id(), placement);
+            Long published = previous.get(entry.id());
+            if (published == null || published != placement) {
+                changes.add(toMessage(entry));
+            }
+        }
+        if (statusChanges != null) {
+            for (QueueSnapshot ticket : statusChanges.values()) {
+                if (!current.containsKey(ticket.id())) {
+                    changes.add(toMessage(ticket));
+                }
+            }
+        }
+
+        if (current.isEmpty()) {
+            lastPublished.remove(establishmentId);
+        } else {
+            lastPublished.put(establishmentId, current);
+        }
+
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        send(establishmentDestination(establishmentId), QueueUpdateMessage.builder()
+            .establishmentId(establishmentId)
+            .totalInQueue(waiting.size())
+            .changes(changes)
+            .timestamp(LocalDateTime.now())
+            .build());
+        for (TicketUpdateMessage change : changes) {
+            send(ticketDestination(change.getQueueId()), change);
+        }
+
+        log.debug("Published {} queue changes for establishment {}", changes.size(), establishmentId);
+    }
+
+    private void send(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        sseEmitters.send(destination, payload);
+    }
+
+    private TicketUpdateMessage toMessage(QueueSnapshot ticket) {
+        boolean waiting = ticket.status() == Queue.QueueStatus.WAITING;
+        return TicketUpdateMessage.builder()
+            .queueId(ticket.id())
+            .ticketNumber(ticket.ticketNumber())
+            .status(ticket.status().toString())
+            .position(waiting ? ticket.position() : null)
+            .totalInQueue(waiting ? ticket.totalInQueue() : null)
+            .estimatedWaitTime(waiting ? ticket.estimatedWaitTime() : null)
+            .build();
+    }
+}
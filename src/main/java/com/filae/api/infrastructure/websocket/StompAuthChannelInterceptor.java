@@ -0,0 +1,127 @@
+package com.filae.api.infrastructure.websocket;
+
+import com.filae.api.domain.service.QueueService;
+import com.filae.api.infrastructure.security.AccountStatusCache;
+import com.filae.api.infrastructure.security.AuthenticatedUser;
+import com.filae.api.infrastructure.security.JwtTokenProvider;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions with the same JWT used for the REST API.
+ * The token is sent in the Authorization native header of the CONNECT frame.
+ * Per-user topics (/topic/users/{id}/...) may only be subscribed by that user,
+ * and ticket topics (/topic/tickets/{id}) by the ticket's owner or the
+ * establishment's merchant. Topics are written by the server only: clients
+ * may SEND to application destinations (/app/...) and nowhere else.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final String APPLICATION_PREFIX = "/app/";
+    private static final String USER_TOPIC_PREFIX = "/topic/users/";
+    private static final String TICKET_TOPIC_PREFIX = "/topic/tickets/";
+
+    private final JwtTokenProvider tokenProvider;
+    private final AccountStatusCache accountStatus;
+    private final QueueService queueService;
+
+    public StompAuthChannelInterceptor(JwtTokenProvider tokenProvider, AccountStatusCache accountStatus,
+                                       QueueService queueService) {
+        this.tokenProvider = tokenProvider;
+        this.accountStatus = accountStatus;
+        this.queueService = queueService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String jwt = getJwt(accessor);
+            AuthenticatedUser user = StringUtils.hasText(jwt)
+                ? tokenProvider.getAuthenticatedUser(jwt)
+                    .filter(AuthenticatedUser::isEnabled)
+                    .filter(accountStatus::isCurrent)
+                    .orElse(null)
+                : null;
+            if (user == null) {
+                throw new MessageDeliveryException("Invalid or missing JWT token");
+            }
+
+            accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            if (accessor.getUser() == null) {
+                throw new MessageDeliveryException("Not authenticated");
+            }
+            if (!mayReceive(accessor.getUser(), accessor.getDestination())) {
+                throw new MessageDeliveryException("Not allowed to subscribe to " + accessor.getDestination());
+            }
+        } else if (StompCommand.SEND.equals(accessor.getCommand())) {
+            if (accessor.getUser() == null) {
+                throw new MessageDeliveryException("Not authenticated");
+            }
+            String destination = accessor.getDestination();
+            if (destination == null || !destination.startsWith(APPLICATION_PREFIX)) {
+                throw new MessageDeliveryException("Not allowed to send to " + destination);
+            }
+        }
+
+        return message;
+    }
+
+    private boolean mayReceive(Principal principal, String destination) {
+        if (destination == null) {
+            return true;
+        }
+        if (destination.startsWith(USER_TOPIC_PREFIX)) {
+            String owner = pathSegment(destination, USER_TOPIC_PREFIX);
+            return userOf(principal) instanceof AuthenticatedUser user && owner.equals(String.valueOf(user.id()));
+        }
+        if (destination.startsWith(TICKET_TOPIC_PREFIX)) {
+            Long ticketId = parseId(pathSegment(destination, TICKET_TOPIC_PREFIX));
+            return ticketId != null
+                && userOf(principal) instanceof AuthenticatedUser user
+                && queueService.getQueueById(ticketId).filter(ticket -> ticket.isVisibleTo(user.id())).isPresent();
+        }
+        return true;
+    }
+
+    private static Object userOf(Principal principal) {
+        return principal instanceof Authentication auth ? auth.getPrincipal() : null;
+    }
+
+    private static String pathSegment(String destination, String prefix) {
+        return destination.substring(prefix.length()).split("/", 2)[0];
+    }
+
+    private static Long parseId(String segment) {
+        try {
+            return Long.valueOf(segment);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String getJwt(StompHeaderAccessor accessor) {
+        String bearerToken = accessor.getFirstNativeHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,5 @@
+-- Idempotency-Key a queue entry was created with, so a retried join can find
+-- its ticket on any node. Not unique: keys expire and clients may reuse them.
+ALTER TABLE queues ADD COLUMN join_key VARCHAR(255);
+
+CREATE INDEX idx_queues_user_join_key ON queues(user_id, join_key) WHERE join_key IS NOT NULL;
@@ -0,0 +1,3 @@
+-- rating became NOT NULL in V9: inserts that omit it start at 0 (no reviews yet)
+ALTER TABLE establishments ALTER COLUMN rating SET DEFAULT 0;
+ALTER TABLE establishments ALTER COLUMN review_count SET DEFAULT 0;
@@ -0,0 +1,21 @@
+-- Immutable, monotonic ordering key for queue entries.
+-- Positions are derived from it at read time instead of being rewritten.
+CREATE SEQUENCE IF NOT EXISTS queues_sequence_number_seq;
+
+ALTER TABLE queues ADD COLUMN sequence_number BIGINT;
+
+-- Backfill existing entries in their current queue order
+UPDATE queues q
+SET sequence_number = ordered.seq
+FROM (
+    SELECT id, nextval('queues_sequence_number_seq') AS seq
+    FROM (SELECT id FROM queues ORDER BY establishment_id, position, id) AS by_position
+) AS ordered
+WHERE q.id = ordered.id;
+
+ALTER TABLE queues ALTER COLUMN sequence_number SET DEFAULT nextval('queues_sequence_number_seq');
+ALTER TABLE queues ALTER COLUMN sequence_number SET NOT NULL;
+ALTER SEQUENCE queues_sequence_number_seq OWNED BY queues.sequence_number;
+
+-- Waiting list of an establishment in queue order
+CREATE INDEX idx_queues_establishment_sequence ON queues(establishment_id, sequence_number);
@@ -0,0 +1,6 @@
+-- Keyset pagination of merchant queue history, newest first on (joined_at, id)
+CREATE INDEX idx_queues_merchant_joined ON queues(merchant_id, joined_at DESC, id DESC);
+
+-- Same listing restricted to one establishment; its prefix replaces idx_queues_merchant_establishment
+CREATE INDEX idx_queues_merchant_establishment_joined ON queues(merchant_id, establishment_id, joined_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_queues_merchant_establishment;
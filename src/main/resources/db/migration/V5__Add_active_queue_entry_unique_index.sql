@@ -0,0 +1,15 @@
+-- A user may hold at most one active (WAITING or CALLED) entry per establishment.
+-- Older duplicates left behind by the previous read-then-write check are cancelled first.
+UPDATE queues q
+SET status = 'CANCELLED', cancelled_at = CURRENT_TIMESTAMP
+WHERE q.status IN ('WAITING', 'CALLED')
+  AND EXISTS (
+    SELECT 1 FROM queues newer
+    WHERE newer.user_id = q.user_id
+      AND newer.establishment_id = q.establishment_id
+      AND newer.status IN ('WAITING', 'CALLED')
+      AND newer.id > q.id
+  );
+
+CREATE UNIQUE INDEX uk_queues_active_user_establishment ON queues(user_id, establishment_id)
+    WHERE status IN ('WAITING', 'CALLED');
@@ -0,0 +1,54 @@
+-- Indexes shaped after the repository queries. Partial indexes cover only the
+-- active rows (WAITING/CALLED, unread), which stay small as history grows.
+
+-- Queues -------------------------------------------------------------------
+
+-- Waiting list in queue order: engine rebuild, lockNextWaiting, waiting counts
+CREATE INDEX idx_queues_waiting ON queues(establishment_id, sequence_number)
+    WHERE status = 'WAITING';
+
+-- Active entries (WAITING and CALLED) of an establishment or merchant in queue order
+CREATE INDEX idx_queues_active_establishment ON queues(establishment_id, sequence_number)
+    WHERE status IN ('WAITING', 'CALLED');
+CREATE INDEX idx_queues_active_merchant ON queues(merchant_id, sequence_number)
+    WHERE status IN ('WAITING', 'CALLED');
+
+-- A user's queue history, newest first (also serves the user_id foreign key)
+CREATE INDEX idx_queues_user_joined ON queues(user_id, joined_at DESC);
+
+-- Today's tickets of an establishment (ticket counter seeding; also serves the establishment_id foreign key)
+CREATE INDEX idx_queues_establishment_joined ON queues(establishment_id, joined_at);
+
+-- Recently called entries (wait time model warm-up)
+CREATE INDEX idx_queues_called_at ON queues(called_at) WHERE called_at IS NOT NULL;
+
+-- Superseded: status alone is low-selectivity, ticket_number is already indexed by its UNIQUE
+-- constraint, and the remaining ones are prefixes of the indexes above or of idx_queues_merchant_joined
+DROP INDEX IF EXISTS idx_queues_status;
+DROP INDEX IF EXISTS idx_queues_ticket_number;
+DROP INDEX IF EXISTS idx_queues_establishment_id;
+DROP INDEX IF EXISTS idx_queues_user_id;
+DROP INDEX IF EXISTS idx_queues_merchant_id;
+DROP INDEX IF EXISTS idx_queues_establishment_sequence;
+
+-- Notifications -------------------------------------------------------------
+
+-- A user's notifications, newest first (also serves the user_id foreign key)
+CREATE INDEX idx_notifications_user_created ON notifications(user_id, created_at DESC);
+
+-- Unread notifications and unread counts of a user
+CREATE INDEX idx_notifications_user_unread ON notifications(user_id, created_at DESC)
+    WHERE is_read = FALSE;
+
+-- Cascading deletes from queues
+CREATE INDEX idx_notifications_ticket_id ON notifications(ticket_id) WHERE ticket_id IS NOT NULL;
+
+DROP INDEX IF EXISTS idx_notifications_is_read;
+DROP INDEX IF EXISTS idx_notifications_user_id;
+
+-- Favorites -----------------------------------------------------------------
+
+-- A user's favorites, newest first; UNIQUE(user_id, establishment_id) serves the lookups
+CREATE INDEX idx_favorites_user_added ON favorites(user_id, added_at DESC);
+
+DROP INDEX IF EXISTS idx_favorites_user_id;
@@ -0,0 +1,56 @@
+-- Cold storage for terminal (FINISHED/CANCELLED) queue entries, moved out of
+-- queues by the background archiver. Range-partitioned by month of joined_at;
+-- monthly partitions are created by the archiver, the default one is a fallback.
+CREATE TABLE IF NOT EXISTS queues_archive (
+    id BIGINT NOT NULL,
+    ticket_number VARCHAR(50) NOT NULL,
+    establishment_id BIGINT NOT NULL REFERENCES establishments(id) ON DELETE CASCADE,
+    merchant_id BIGINT NOT NULL REFERENCES users(id),
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    party_size INTEGER NOT NULL,
+    notes TEXT,
+    sequence_number BIGINT NOT NULL,
+    position INTEGER NOT NULL,
+    total_in_queue INTEGER NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    estimated_wait_time INTEGER,
+    joined_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    called_at TIMESTAMP WITH TIME ZONE,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    cancelled_at TIMESTAMP WITH TIME ZONE,
+    created_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, joined_at)
+) PARTITION BY RANGE (joined_at);
+
+CREATE TABLE IF NOT EXISTS queues_archive_default PARTITION OF queues_archive DEFAULT;
+
+-- Same keyset shapes as the live table's merchant history indexes
+CREATE INDEX idx_queues_archive_merchant_joined ON queues_archive(merchant_id, joined_at DESC, id DESC);
+CREATE INDEX idx_queues_archive_merchant_establishment_joined
+    ON queues_archive(merchant_id, establishment_id, joined_at DESC, id DESC);
+CREATE INDEX idx_queues_archive_user_joined ON queues_archive(user_id, joined_at DESC);
+CREATE INDEX idx_queues_archive_establishment ON queues_archive(establishment_id);
+
+-- Archive candidates, oldest change first
+CREATE INDEX idx_queues_terminal_updated ON queues(updated_at)
+    WHERE status IN ('FINISHED', 'CANCELLED');
+
+-- Archiving deletes from queues; notifications keep their row and lose the ticket link
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_ticket_id_fkey;
+ALTER TABLE notifications ADD CONSTRAINT notifications_ticket_id_fkey
+    FOREIGN KEY (ticket_id) REFERENCES queues(id) ON DELETE SET NULL;
+
+-- Live and archived entries as one relation. Filters and ORDER BY ... LIMIT are
+-- pushed down to both branches, so keyset reads merge two index scans.
+CREATE VIEW queue_history AS
+SELECT id, ticket_number, establishment_id, merchant_id, user_id, party_size, notes, sequence_number,
+       position, total_in_queue, status, estimated_wait_time,
+       joined_at, called_at, finished_at, cancelled_at, created_at, updated_at
+FROM queues
+UNION ALL
+SELECT id, ticket_number, establishment_id, merchant_id, user_id, party_size, notes, sequence_number,
+       position, total_in_queue, status, estimated_wait_time,
+       joined_at, called_at, finished_at, cancelled_at, created_at, updated_at
+FROM queues_archive;
@@ -0,0 +1,9 @@
+-- Read notifications by age, for the retention job
+CREATE INDEX idx_notifications_read_created ON notifications(created_at) WHERE is_read = TRUE;
+
+-- POSITION_UPDATE notifications per ticket, newest last, for compaction
+CREATE INDEX idx_notifications_position_updates ON notifications(ticket_id, id)
+    WHERE type = 'POSITION_UPDATE' AND ticket_id IS NOT NULL;
+
+-- Only ever used to find old read rows, now covered by the partial index above
+DROP INDEX IF EXISTS idx_notifications_created_at;
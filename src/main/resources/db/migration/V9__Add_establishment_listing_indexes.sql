@@ -0,0 +1,16 @@
+-- Indexes for the keyset-paginated establishment listing. Each ordering is
+-- (sort key, id); category and city filters compare lower(column) and are
+-- followed by the default name ordering so a filtered page is one index range.
+
+-- The listing's rating ordering needs a total order
+UPDATE establishments SET rating = 0 WHERE rating IS NULL;
+ALTER TABLE establishments ALTER COLUMN rating SET NOT NULL;
+
+CREATE INDEX idx_establishments_name_id ON establishments(name, id);
+CREATE INDEX idx_establishments_rating_id ON establishments(rating DESC, id);
+CREATE INDEX idx_establishments_category_name ON establishments(lower(category), name, id);
+CREATE INDEX idx_establishments_city_name ON establishments(lower(city), name, id);
+
+-- Superseded: filters compare lower(column), which these plain indexes cannot serve
+DROP INDEX IF EXISTS idx_establishments_category;
+DROP INDEX IF EXISTS idx_establishments_city;
@@ -0,0 +1,133 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.entity.Notification.NotificationType;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.stats.SystemCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The POSITION_UPDATE lane: its capacity holds under concurrent producers, and
+ * an update for a ticket that has left the queue is never written
+ */
+class NotificationPipelineTest {
+
+    private static final int POSITION_UPDATE_CAPACITY = 1000;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final QueueEngine queueEngine = mock(QueueEngine.class);
+    private final List<Object[]> rows = new ArrayList<>();
+    private NotificationPipeline pipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            rows.addAll(batch);
+            return new int[batch.size()];
+        });
+        when(queueEngine.isWaiting(anyLong())).thenReturn(true);
+
+        pipeline = new NotificationPipeline(jdbcTemplate, mock(SystemCounters.class), queueEngine,
+                mock(UnreadNotificationCounters.class), mock(ApplicationEventPublisher.class),
+                100, POSITION_UPDATE_CAPACITY, 500, 0);
+    }
+
+    @Test
+    void concurrentPositionUpdatesNeverExceedTheCapacity() throws Exception {
+        int threads = 16;
+        int ticketsPerThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // The lane fills up in a burst each round; repeated because a lost race is not guaranteed in one
+            for (int round = 0; round < 20; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger accepted = new AtomicInteger();
+                List<Future<?>> producers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    long firstTicket = ((long) round * threads + t) * ticketsPerThread;
+                    producers.add(executor.submit(() -> {
+                        start.await();
+                        for (long ticketId = firstTicket; ticketId < firstTicket + ticketsPerThread; ticketId++) {
+                            if (pipeline.enqueue(positionUpdate(ticketId, 2))) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> producer : producers) {
+                    producer.get(30, TimeUnit.SECONDS);
+                }
+
+                assertThat(accepted.get()).isEqualTo(POSITION_UPDATE_CAPACITY);
+                assertThat(pipeline.getPendingPositionUpdates()).isEqualTo(POSITION_UPDATE_CAPACITY);
+
+                rows.clear();
+                pipeline.flush();
+                assertThat(rows).hasSize(POSITION_UPDATE_CAPACITY);
+                assertThat(pipeline.getPendingPositionUpdates()).isZero();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(pipeline.getDropped()).isEqualTo(20L * (threads * ticketsPerThread - POSITION_UPDATE_CAPACITY));
+    }
+
+    @Test
+    void mergedUpdatesKeepTheirSlotAndTheLatestMessage() {
+        for (int position = 5; position >= 1; position--) {
+            assertThat(pipeline.enqueue(positionUpdate(7L, position))).isTrue();
+        }
+
+        assertThat(pipeline.getPendingPositionUpdates()).isEqualTo(1);
+        assertThat(pipeline.getMerged()).isEqualTo(4);
+
+        pipeline.flush();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[5]).isEqualTo("You are now number 1");
+    }
+
+    @Test
+    void staleUpdateArrivingAfterTheTicketLeftIsNotWritten() {
+        // Computed while ticket 7 was still waiting, enqueued after it was called
+        pipeline.enqueue(new NotificationRequest(70L, 7L, 1L, NotificationType.QUEUE_CALLED, "It's your turn!",
+                "Ticket A-007 has been called.", LocalDateTime.now()));
+        pipeline.enqueue(positionUpdate(7L, 1));
+        pipeline.enqueue(positionUpdate(8L, 1));
+        when(queueEngine.isWaiting(7L)).thenReturn(false);
+
+        pipeline.flush();
+
+        assertThat(rows).extracting(row -> row[1] + ":" + row[3])
+                .containsExactly("7:QUEUE_CALLED", "8:POSITION_UPDATE");
+        assertThat(pipeline.getPendingPositionUpdates()).isZero();
+    }
+
+    private static NotificationRequest positionUpdate(Long ticketId, int position) {
+        return new NotificationRequest(ticketId * 10, ticketId, 1L, NotificationType.POSITION_UPDATE,
+                "Queue position updated", "You are now number " + position, LocalDateTime.now());
+    }
+}
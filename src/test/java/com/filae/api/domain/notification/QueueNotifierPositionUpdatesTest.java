@@ -0,0 +1,101 @@
+package com.filae.api.domain.notification;
+
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.domain.service.QueueService;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POSITION_UPDATE notifications sent when a waiting entry leaves the queue,
+ * through the real service, queue engine and notification pipeline
+ */
+class QueueNotifierPositionUpdatesTest extends PostgresIntegrationTest {
+
+    private static final Pattern POSITION = Pattern.compile("You are now number (\\d+) ");
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired
+    private QueueEngine queueEngine;
+
+    @Autowired
+    private NotificationPipeline pipeline;
+
+    @Test
+    void everyoneBehindACalledTicketGetsTheirNewPosition() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        List<Long> tickets = join(establishmentId, 4);
+
+        QueueSnapshot called = queueService.callNext(establishmentId);
+
+        assertThat(called.id()).isEqualTo(tickets.get(0));
+        assertThat(positionUpdates(establishmentId)).containsExactly(
+                Map.entry(tickets.get(1), 1), Map.entry(tickets.get(2), 2), Map.entry(tickets.get(3), 3));
+    }
+
+    @Test
+    void onlyTicketsBehindACancelledOneMoveUp() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        List<Long> tickets = join(establishmentId, 4);
+        Long owner = jdbcTemplate.queryForObject("SELECT user_id FROM queues WHERE id = ?", Long.class,
+                tickets.get(2));
+
+        queueService.cancelQueue(tickets.get(2), owner);
+
+        assertThat(positionUpdates(establishmentId)).containsExactly(Map.entry(tickets.get(3), 3));
+    }
+
+    @Test
+    void queueOrderFollowsSequenceNumbersNotIds() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        List<Long> tickets = join(establishmentId, 3);
+
+        // As backfilled by V3 from the old positions: the newest row is first in line
+        jdbcTemplate.update("UPDATE queues SET sequence_number = sequence_number + 100 WHERE id IN (?, ?)",
+                tickets.get(0), tickets.get(1));
+        queueEngine.rebuild();
+
+        QueueSnapshot called = queueService.callNext(establishmentId);
+
+        assertThat(called.id()).isEqualTo(tickets.get(2));
+        assertThat(positionUpdates(establishmentId)).containsExactly(
+                Map.entry(tickets.get(0), 1), Map.entry(tickets.get(1), 2));
+    }
+
+    private List<Long> join(Long establishmentId, int count) {
+        List<Long> tickets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tickets.add(queueService.joinQueue(establishmentId, createUser("CUSTOMER"), 1, null, null).id());
+        }
+        return tickets;
+    }
+
+    /**
+     * Position sent to each ticket of an establishment, in ticket order
+     */
+    private Map<Long, Integer> positionUpdates(Long establishmentId) {
+        pipeline.flush();
+
+        Map<Long, Integer> positions = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT ticket_id, message FROM notifications " +
+                        "WHERE establishment_id = ? AND type = 'POSITION_UPDATE' ORDER BY ticket_id",
+                rs -> {
+                    Matcher matcher = POSITION.matcher(rs.getString("message"));
+                    assertThat(matcher.find()).as(rs.getString("message")).isTrue();
+                    positions.put(rs.getLong("ticket_id"), Integer.parseInt(matcher.group(1)));
+                }, establishmentId);
+        return positions;
+    }
+}
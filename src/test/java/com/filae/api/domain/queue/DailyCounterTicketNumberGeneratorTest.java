@@ -0,0 +1,161 @@
+package com.filae.api.domain.queue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ticket numbers issued concurrently, on one node and across nodes, never collide
+ */
+class DailyCounterTicketNumberGeneratorTest {
+
+    private static final int THREADS = 32;
+    private static final int TICKETS_PER_THREAD = 500;
+
+    // Issued ticket numbers per establishment, standing in for the queues table
+    private final Map<Long, List<String>> issued = new ConcurrentHashMap<>();
+
+    @Test
+    void concurrentTicketsOfManyEstablishmentsAreUnique() throws Exception {
+        DailyCounterTicketNumberGenerator generator = node(false);
+
+        // Establishments whose names share the prefix, so only the id and the counter tell them apart
+        List<String> numbers = runConcurrently(thread -> {
+            List<String> mine = new ArrayList<>();
+            for (int i = 0; i < TICKETS_PER_THREAD; i++) {
+                Long establishmentId = (long) (i % 4) + 1;
+                mine.add(generator.next(establishmentId, "Taberna " + establishmentId));
+            }
+            return mine;
+        });
+
+        assertThat(numbers).hasSize(THREADS * TICKETS_PER_THREAD).doesNotHaveDuplicates();
+        assertThat(numbers).allMatch(number -> number.startsWith("TA"));
+    }
+
+    @Test
+    void nodesTakingTurnsUnderTheLockNeverReuseANumber() throws Exception {
+        // Two nodes issuing for the same establishments; the advisory lock serializes each establishment
+        List<DailyCounterTicketNumberGenerator> nodes = List.of(node(true), node(true));
+        Map<Long, Object> advisoryLocks = new ConcurrentHashMap<>();
+
+        List<String> numbers = runConcurrently(thread -> {
+            DailyCounterTicketNumberGenerator generator = nodes.get(thread % 2);
+            List<String> mine = new ArrayList<>();
+            for (int i = 0; i < TICKETS_PER_THREAD / 10; i++) {
+                Long establishmentId = (long) (i % 2) + 1;
+                synchronized (advisoryLocks.computeIfAbsent(establishmentId, id -> new Object())) {
+                    String number = generator.next(establishmentId, "Taberna");
+                    issued.computeIfAbsent(establishmentId, id -> new CopyOnWriteArrayList<>()).add(number);
+                    mine.add(number);
+                }
+            }
+            return mine;
+        });
+
+        assertThat(numbers).hasSize(THREADS * (TICKETS_PER_THREAD / 10)).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void restartedNodeContinuesAfterTodaysTickets() {
+        DailyCounterTicketNumberGenerator before = node(false);
+        for (int i = 0; i < 41; i++) {
+            issued.computeIfAbsent(7L, id -> new CopyOnWriteArrayList<>()).add(before.next(7L, "Taberna"));
+        }
+
+        DailyCounterTicketNumberGenerator restarted = node(false);
+        restarted.afterSingletonsInstantiated();
+
+        assertThat(restarted.next(7L, "Taberna")).endsWith("-042").isNotIn(issued.get(7L));
+    }
+
+    /**
+     * A generator whose seeding queries read the issued map
+     */
+    private DailyCounterTicketNumberGenerator node(boolean distributed) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            Object[] args = invocation.getArguments();
+            // SEED_ONE_SQL passes the establishment id as its last argument
+            Long only = args.length > 4 ? (Long) args[4] : null;
+            for (Map.Entry<Long, List<String>> entry : issued.entrySet()) {
+                if (only != null && !only.equals(entry.getKey())) {
+                    continue;
+                }
+                for (String number : entry.getValue()) {
+                    handler.processRow(row(entry.getKey(), number));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        EstablishmentLocks locks = mock(EstablishmentLocks.class);
+        when(locks.isDistributed()).thenReturn(distributed);
+        return new DailyCounterTicketNumberGenerator(jdbcTemplate, locks);
+    }
+
+    /**
+     * Row of (establishment_id, ticket_number); a plain proxy, as the seeding queries read thousands of rows
+     */
+    private static ResultSet row(Long establishmentId, String ticketNumber) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getLong" -> establishmentId;
+                    case "getString" -> ticketNumber;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private interface Worker {
+        List<String> run(int thread) throws Exception;
+    }
+
+    /**
+     * Run the worker on THREADS threads released at the same moment, collecting every number issued
+     */
+    private static List<String> runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int thread = i;
+                futures.add(executor.submit((Callable<List<String>>) () -> {
+                    start.await();
+                    return worker.run(thread);
+                }));
+            }
+            start.countDown();
+
+            List<String> numbers = new ArrayList<>();
+            for (Future<List<String>> future : futures) {
+                numbers.addAll(future.get(1, TimeUnit.MINUTES));
+            }
+            return numbers;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.domain.entity.Queue.QueueStatus;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class QueueSummariesTest {
+
+    private static final Long ESTABLISHMENT_ID = 1L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final QueueSummaries summaries = new QueueSummaries(mock(QueueEngine.class), jdbcTemplate);
+
+    // CALLED tickets in the database, and changes that commit and are applied while it is being read
+    private final List<Long> calledInDatabase = new ArrayList<>();
+    private Runnable duringRead = () -> {
+    };
+
+    QueueSummariesTest() {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            List<Long> snapshot = List.copyOf(calledInDatabase);
+            duringRead.run();
+            for (Long ticketId : snapshot) {
+                handler.processRow(row(ESTABLISHMENT_ID, ticketId));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void changeAppliedDuringTheReadAndSeenByItIsCountedOnce() {
+        calledInDatabase.add(10L);
+        summaries.reconcile();
+
+        // Ticket 11 was called before the read's snapshot, but its after-commit hook runs during the read
+        calledInDatabase.add(11L);
+        duringRead = () -> summaries.apply(called(11L));
+        summaries.reconcile();
+
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isEqualTo(2);
+    }
+
+    @Test
+    void changeAppliedDuringTheReadButNotSeenByItIsKept() {
+        calledInDatabase.add(10L);
+        summaries.reconcile();
+
+        // Ticket 10 finishes and ticket 12 is called after the read's snapshot
+        duringRead = () -> {
+            summaries.apply(finished(10L));
+            summaries.apply(called(12L));
+        };
+        summaries.reconcile();
+
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isEqualTo(1);
+        summaries.apply(finished(12L));
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isZero();
+    }
+
+    @Test
+    void changesAreIdempotent() {
+        summaries.apply(called(20L));
+        summaries.apply(called(20L));
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isEqualTo(1);
+
+        summaries.apply(finished(20L));
+        summaries.apply(finished(20L));
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isZero();
+    }
+
+    @Test
+    void callArrivingAfterItsTicketLeftIsIgnored() {
+        // Called on another node, finished on this one before the call notification arrived
+        summaries.apply(finished(30L));
+        summaries.apply(called(30L));
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isZero();
+
+        summaries.apply(finished(31L));
+        summaries.reconcile();
+        summaries.apply(called(31L));
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isZero();
+    }
+
+    @Test
+    void failedReadKeepsTheCurrentCounts() {
+        summaries.apply(called(40L));
+        doAnswer(invocation -> {
+            throw new IllegalStateException("connection refused");
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        summaries.reconcile();
+        summaries.apply(called(41L));
+
+        assertThat(summaries.get(ESTABLISHMENT_ID).called()).isEqualTo(2);
+    }
+
+    private static QueueStatusChangedEvent called(Long ticketId) {
+        return new QueueStatusChangedEvent(ticket(ticketId, QueueStatus.CALLED), QueueStatus.WAITING,
+                LocalDateTime.now());
+    }
+
+    private static QueueStatusChangedEvent finished(Long ticketId) {
+        return new QueueStatusChangedEvent(ticket(ticketId, QueueStatus.FINISHED), QueueStatus.CALLED,
+                LocalDateTime.now());
+    }
+
+    private static QueueSnapshot ticket(Long ticketId, QueueStatus status) {
+        return new QueueSnapshot(ticketId, "T" + ticketId, ESTABLISHMENT_ID, "Test", 1L, ticketId, "Customer", 1,
+                null, ticketId, null, null, status, null, LocalDateTime.now(), LocalDateTime.now(), null);
+    }
+
+    private static ResultSet row(Long establishmentId, Long ticketId) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName() + ":" + args[0]) {
+                    case "getLong:1" -> establishmentId;
+                    case "getLong:2" -> ticketId;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
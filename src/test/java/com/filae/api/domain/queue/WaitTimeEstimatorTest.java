@@ -0,0 +1,173 @@
+package com.filae.api.domain.queue;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Accuracy of the wait time estimates against a simulated establishment with
+ * one server: each prediction made when a customer joins is compared with
+ * the wait the customer actually had
+ */
+class WaitTimeEstimatorTest {
+
+    private static final Long ESTABLISHMENT_ID = 1L;
+    private static final double DEFAULT_MINUTES = 10;
+
+    @Test
+    void estimatesMatchActualWaitsOfASteadyLine() {
+        Simulation simulation = new Simulation(new Random(7), 0.0, 1.05, 0);
+        simulation.run(300);
+
+        assertThat(simulation.meanRelativeError()).isLessThan(0.15);
+        assertThat(simulation.estimator.minutesPerPosition(ESTABLISHMENT_ID)).isBetween(2.7, 3.3);
+    }
+
+    @Test
+    void estimatesAccountForLargerParties() {
+        // A third of the parties take three times as long to serve
+        Simulation simulation = new Simulation(new Random(11), 1 / 3d, 1.05, 0);
+        simulation.run(300);
+
+        assertThat(simulation.meanRelativeError()).isLessThan(0.2);
+        assertThat(simulation.estimator.minutesPerPosition(ESTABLISHMENT_ID)).isBetween(4.2, 5.8);
+    }
+
+    @Test
+    void idleTimeIsNotMistakenForServiceTime() {
+        // Rushes of 12 customers, each followed by an hour with nobody in line
+        Simulation simulation = new Simulation(new Random(13), 0.0, 3, 12);
+        simulation.run(300);
+
+        assertThat(simulation.meanRelativeError()).isLessThan(0.15);
+        assertThat(simulation.estimator.minutesPerPosition(ESTABLISHMENT_ID)).isBetween(2.7, 3.3);
+    }
+
+    @Test
+    void fallsBackToDefaultUntilEnoughSamples() {
+        WaitTimeEstimator estimator = estimator();
+        assertThat(estimator.minutesPerPosition(ESTABLISHMENT_ID)).isEqualTo(DEFAULT_MINUTES);
+
+        Simulation simulation = new Simulation(new Random(17), 0.0, 1.05, 0);
+        simulation.run(3);
+        assertThat(simulation.estimator.minutesPerPosition(ESTABLISHMENT_ID)).isEqualTo(DEFAULT_MINUTES);
+    }
+
+    private static WaitTimeEstimator estimator() {
+        return new WaitTimeEstimator(null, 0.2, 5, DEFAULT_MINUTES, 120, 0);
+    }
+
+    /**
+     * Customers arriving at random intervals around a given load.
+     * Parties of one take about 3 minutes, large parties about 9.
+     */
+    private static final class Simulation {
+
+        private final WaitTimeEstimator estimator = estimator();
+        private final Random random;
+        private final double largePartyShare;
+        private final double load;
+        private final int idleEvery;
+        private final List<Double> relativeErrors = new ArrayList<>();
+
+        /**
+         * @param load      arrival rate over service rate
+         * @param idleEvery customers after which the line empties and stays empty for an hour (0 for never)
+         */
+        Simulation(Random random, double largePartyShare, double load, int idleEvery) {
+            this.random = random;
+            this.largePartyShare = largePartyShare;
+            this.load = load;
+            this.idleEvery = idleEvery;
+        }
+
+        void run(int customers) {
+            LocalDateTime start = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.HOURS);
+            List<Ticket> tickets = new ArrayList<>();
+            LocalDateTime arrival = start;
+            LocalDateTime serverFree = start;
+            double meanService = 3 * (1 - largePartyShare) + 9 * largePartyShare;
+            for (int i = 0; i < customers; i++) {
+                boolean idle = idleEvery > 0 && i > 0 && i % idleEvery == 0;
+                double gapMinutes = meanService / load * (0.8 + 0.4 * random.nextDouble());
+                arrival = idle ? serverFree.plusMinutes(60) : arrival.plusSeconds(seconds(gapMinutes));
+                int partySize = random.nextDouble() < largePartyShare ? 4 : 1;
+                double serviceMinutes = (partySize == 1 ? 3 : 9) * (0.8 + 0.4 * random.nextDouble());
+                LocalDateTime called = arrival.isAfter(serverFree) ? arrival : serverFree;
+                serverFree = called.plusSeconds(seconds(serviceMinutes));
+                tickets.add(new Ticket((long) i + 1, partySize, arrival, called, serverFree));
+            }
+
+            List<Event> events = new ArrayList<>();
+            for (Ticket ticket : tickets) {
+                events.add(new Event(ticket.joinedAt, 0, ticket));
+                events.add(new Event(ticket.calledAt, 1, ticket));
+                events.add(new Event(ticket.finishedAt, 2, ticket));
+            }
+            events.sort(Comparator.comparing(Event::at).thenComparing(Event::kind, Comparator.reverseOrder()));
+
+            int waiting = 0;
+            int measureFrom = customers / 3;
+            for (Event event : events) {
+                Ticket ticket = event.ticket;
+                switch (event.kind) {
+                    case 0 -> {
+                        waiting++;
+                        double predicted = WaitTimeEstimator.estimate(waiting,
+                                estimator.minutesPerPosition(ESTABLISHMENT_ID));
+                        double actual = Duration.between(ticket.joinedAt, ticket.calledAt).toSeconds() / 60d;
+                        // Short waits are dominated by the remaining service of whoever is at the counter
+                        if (ticket.id > measureFrom && waiting >= 5) {
+                            relativeErrors.add(Math.abs(predicted - actual) / actual);
+                        }
+                        estimator.apply(new QueueStatusChangedEvent(ticket.snapshot(Queue.QueueStatus.WAITING),
+                                null, event.at));
+                    }
+                    case 1 -> {
+                        waiting--;
+                        estimator.apply(new QueueStatusChangedEvent(ticket.snapshot(Queue.QueueStatus.CALLED),
+                                Queue.QueueStatus.WAITING, event.at));
+                    }
+                    default -> estimator.apply(new QueueStatusChangedEvent(ticket.snapshot(Queue.QueueStatus.FINISHED),
+                            Queue.QueueStatus.CALLED, event.at));
+                }
+            }
+        }
+
+        private static long seconds(double minutes) {
+            return Math.round(minutes * 60);
+        }
+
+        double meanRelativeError() {
+            assertThat(relativeErrors).hasSizeGreaterThan(50);
+            return relativeErrors.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+        }
+    }
+
+    private record Ticket(Long id, int partySize, LocalDateTime joinedAt, LocalDateTime calledAt,
+                          LocalDateTime finishedAt) {
+
+        QueueSnapshot snapshot(Queue.QueueStatus status) {
+            return new QueueSnapshot(id, "T" + id, ESTABLISHMENT_ID, "Test", 1L, id, "Customer", partySize, null,
+                    id, null, null, status, null, joinedAt,
+                    status == Queue.QueueStatus.WAITING ? null : calledAt,
+                    status == Queue.QueueStatus.FINISHED ? finishedAt : null);
+        }
+    }
+
+    /**
+     * kind: 0 join, 1 call, 2 finish; at equal times a finish precedes the next call
+     */
+    private record Event(LocalDateTime at, int kind, Ticket ticket) {
+    }
+}
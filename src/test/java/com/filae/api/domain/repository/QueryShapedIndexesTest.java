@@ -0,0 +1,246 @@
+package com.filae.api.domain.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filae.api.domain.entity.Queue.QueueStatus;
+import com.filae.api.domain.queue.DailyCounterTicketNumberGenerator;
+import com.filae.api.domain.queue.EstablishmentLocks;
+import com.filae.api.domain.queue.WaitTimeEstimator;
+import com.filae.api.support.PostgresIntegrationTest;
+import com.filae.api.support.StatementCounter;
+import com.filae.api.support.StatementCounter.RecordedStatement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of the repository queries over a large seeded dataset use the
+ * indexes of V6 and never scan the queues, notifications or favorites table.
+ *
+ * Each check calls the repository method (or the component issuing the SQL),
+ * records the statements it prepares with their bound parameters and explains
+ * them, so the plans follow the SQL the code actually generates. Seeding,
+ * ANALYZE and EXPLAIN run in one transaction that is rolled back, so other
+ * tests never see the data.
+ */
+@Import(StatementCounter.class)
+class QueryShapedIndexesTest extends PostgresIntegrationTest {
+
+    private static final int USERS = 10_000;
+    private static final int ESTABLISHMENTS = 200;
+    private static final int QUEUE_ENTRIES = 150_000;
+    private static final int NOTIFICATIONS = 100_000;
+    private static final int FAVORITES = 40_000;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private QueueRepository queueRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Test
+    void repositoryQueriesUseTheirIndexes() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Seed seed = seed();
+            long user = seed.firstUser + 1234;
+            long activeUser = seed.firstUser + 42;
+            long activeEstablishment = seed.activeEstablishmentOf(activeUser);
+            long establishment = seed.firstEstablishment + 17;
+            long merchant = seed.firstMerchant + 3;
+
+            // Engine rebuild
+            assertPlan(() -> queueRepository.findByStatusWithDetails(QueueStatus.WAITING),
+                    "queues", "idx_queues_waiting");
+            assertPlan(() -> queueRepository.lockNextWaiting(establishment), "queues", "idx_queues_waiting");
+            assertPlan(() -> queueRepository.countByEstablishmentAndStatus(establishment, QueueStatus.WAITING),
+                    "queues", "idx_queues_waiting", "idx_queues_active_establishment");
+            assertPlan(() -> queueRepository.findByEstablishmentIdAndStatusOrderBySequenceNumberAsc(establishment,
+                    QueueStatus.WAITING), "queues", "idx_queues_waiting", "idx_queues_active_establishment");
+            assertPlan(() -> queueRepository.findActiveQueuesForEstablishment(establishment),
+                    "queues", "idx_queues_active_establishment");
+            assertPlan(() -> queueRepository.findActiveMerchantSnapshots(merchant),
+                    "queues", "idx_queues_active_merchant");
+            assertPlan(() -> queueRepository.findByUserIdOrderByJoinedAtDesc(user), "queues", "idx_queues_user_joined");
+            assertPlan(() -> queueRepository.findByUserIdOrderByJoinedAtDesc(user, PageRequest.of(0, 20)),
+                    "queues", "idx_queues_user_joined");
+            // The active-entry unique index covers WAITING and CALLED, so it serves these for an active status
+            assertPlan(() -> queueRepository.existsByUserIdAndEstablishmentIdAndStatusIn(activeUser,
+                            activeEstablishment, List.of(QueueStatus.WAITING, QueueStatus.CALLED)),
+                    "queues", "uk_queues_active_user_establishment", "idx_queues_user_joined");
+            assertPlan(() -> queueRepository.findByUserIdAndEstablishmentIdAndStatus(activeUser, activeEstablishment,
+                    QueueStatus.WAITING), "queues", "uk_queues_active_user_establishment", "idx_queues_user_joined");
+            assertPlan(() -> queueRepository.findActiveQueuesByUserId(activeUser, QueueStatus.WAITING),
+                    "queues", "uk_queues_active_user_establishment", "idx_queues_user_joined");
+            assertPlan(() -> queueRepository.findFirstByUserIdAndJoinKeyAndJoinedAtAfterOrderByIdDesc(user,
+                    "key", LocalDateTime.now().minusDays(1)), "queues", "idx_queues_user_join_key",
+                    "idx_queues_user_joined");
+
+            // Ticket counter re-seeding of one establishment (distributed mode)
+            DailyCounterTicketNumberGenerator generator = new DailyCounterTicketNumberGenerator(jdbcTemplate,
+                    new EstablishmentLocks(jdbcTemplate, 64, 5000, true));
+            assertPlan(() -> generator.next(establishment, "Plan"), "queues", "idx_queues_establishment_joined");
+            // Wait time model warm-up
+            WaitTimeEstimator estimator = new WaitTimeEstimator(jdbcTemplate, 0.2, 5, 10, 120, 7);
+            assertPlan(estimator::afterSingletonsInstantiated, "queues", "idx_queues_called_at");
+
+            assertPlan(() -> notificationRepository.findByUserIdOrderByCreatedAtDesc(user),
+                    "notifications", "idx_notifications_user_created");
+            assertPlan(() -> notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(user),
+                    "notifications", "idx_notifications_user_unread");
+            assertPlan(() -> notificationRepository.countByUserIdAndIsReadFalse(user),
+                    "notifications", "idx_notifications_user_unread");
+            assertPlan(() -> notificationRepository.markAllAsRead(user),
+                    "notifications", "idx_notifications_user_unread");
+            // ON DELETE CASCADE from queues: issued by Postgres' foreign key trigger, so not recordable
+            assertPlan("SELECT 1 FROM notifications WHERE ticket_id = ?", new Object[]{seed.firstQueue + 500},
+                    "notifications", "idx_notifications_ticket_id");
+
+            assertPlan(() -> favoriteRepository.findByUserIdOrderByAddedAtDesc(user),
+                    "favorites", "idx_favorites_user_added");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private record Seed(long firstUser, long firstMerchant, long firstEstablishment, long firstQueue) {
+
+        /**
+         * Establishment of a user's active entry (users firstUser + 2k and + 2k + 1 hold the active rows)
+         */
+        long activeEstablishmentOf(long userId) {
+            return firstEstablishment + ((userId - firstUser) / 2) % ESTABLISHMENTS;
+        }
+    }
+
+    /**
+     * Mostly terminal history spread over a year; 2% of the entries are active, each for a distinct user
+     */
+    private Seed seed() {
+        long firstUser = insertUsers(USERS, "CUSTOMER");
+        long firstMerchant = insertUsers(ESTABLISHMENTS / 4, "MERCHANT");
+        long firstEstablishment = jdbcTemplate.queryForList(
+                "INSERT INTO establishments (name, category, address, city, state, merchant_id) " +
+                "SELECT 'Plan ' || g, 'restaurant', 'Rua Plano, ' || g, 'São Paulo', 'SP', ? + g / 4 " +
+                "FROM generate_series(0, ? - 1) g RETURNING id", Long.class,
+                firstMerchant, ESTABLISHMENTS).stream().mapToLong(Long::longValue).min().orElseThrow();
+
+        jdbcTemplate.queryForList("SELECT setseed(0.16)");
+        jdbcTemplate.update(
+                "INSERT INTO queues (ticket_number, establishment_id, merchant_id, user_id, party_size, position, " +
+                "total_in_queue, status, joined_at, called_at, finished_at, created_at, join_key) " +
+                "SELECT 'PLAN-' || g, ? + est, ? + est / 4, " +
+                "       CASE WHEN g % 100 < 2 THEN ? + g / 100 * 2 + g % 100 ELSE ? + floor(random() * ?)::int END, " +
+                "       1, 0, 0, " +
+                "       CASE g % 100 WHEN 0 THEN 'WAITING' WHEN 1 THEN 'CALLED' WHEN 2 THEN 'CANCELLED' ELSE 'FINISHED' END, " +
+                "       joined, " +
+                "       CASE WHEN g % 100 IN (0, 2) THEN NULL ELSE joined + interval '5 minutes' END, " +
+                "       CASE WHEN g % 100 > 2 THEN joined + interval '15 minutes' END, " +
+                "       joined, CASE WHEN g % 10 = 0 THEN md5(g::text) END " +
+                "FROM (SELECT g, CASE WHEN g % 100 < 2 THEN (g / 100) % ? ELSE floor(random() * ?)::int END AS est, " +
+                "             now() - (? - g) * interval '100 seconds' AS joined " +
+                "      FROM generate_series(1, ?) g) s",
+                firstEstablishment, firstMerchant, firstUser, firstUser, USERS,
+                ESTABLISHMENTS, ESTABLISHMENTS, QUEUE_ENTRIES, QUEUE_ENTRIES);
+        long firstQueue = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM queues WHERE ticket_number LIKE 'PLAN-%'", Long.class);
+
+        jdbcTemplate.update(
+                "INSERT INTO notifications (user_id, ticket_id, establishment_id, type, title, message, is_read, created_at) " +
+                "SELECT ? + floor(random() * ?)::int, CASE WHEN g % 2 = 0 THEN ? + g END, NULL, 'POSITION_UPDATE', " +
+                "       'Plan', 'Plan', g % 20 <> 0, now() - (? - g) * interval '150 seconds' " +
+                "FROM generate_series(1, ?) g",
+                firstUser, USERS, firstQueue, NOTIFICATIONS, NOTIFICATIONS);
+        jdbcTemplate.update(
+                "INSERT INTO favorites (user_id, establishment_id, added_at) " +
+                "SELECT ? + floor(random() * ?)::int, ? + floor(random() * ?)::int, now() - g * interval '1 minute' " +
+                "FROM generate_series(1, ?) g ON CONFLICT DO NOTHING",
+                firstUser, USERS, firstEstablishment, ESTABLISHMENTS, FAVORITES);
+
+        jdbcTemplate.execute("ANALYZE users, establishments, queues, notifications, favorites");
+        return new Seed(firstUser, firstMerchant, firstEstablishment, firstQueue);
+    }
+
+    private long insertUsers(int count, String userType) {
+        return jdbcTemplate.queryForList(
+                "INSERT INTO users (name, email, password_hash, user_type) " +
+                "SELECT 'Plan ' || g, 'plan-' || ? || '-' || g || '-' || gen_random_uuid() || '@test.filae', 'x', ? " +
+                "FROM generate_series(1, ?) g RETURNING id", Long.class, userType, userType, count)
+                .stream().mapToLong(Long::longValue).min().orElseThrow();
+    }
+
+    /**
+     * Every statement the action prepares reads the table only through one of the expected indexes
+     */
+    private void assertPlan(Runnable action, String table, String... expectedIndexes) {
+        List<RecordedStatement> statements = StatementCounter.record(action);
+        List<String> accesses = new ArrayList<>();
+        List<String> plans = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            if (statement.sql() != null) {
+                JsonNode plan = explain(statement.sql(), statement.parameterValues());
+                collectAccesses(plan, table, accesses);
+                plans.add(statement.sql() + " " + statement.parameters() + ": " + plan);
+            }
+        }
+
+        assertThat(accesses).as("plans of %s", plans)
+                .isNotEmpty()
+                .doesNotContain("Seq Scan")
+                .allSatisfy(index -> assertThat(index).isIn((Object[]) expectedIndexes));
+    }
+
+    private void assertPlan(String sql, Object[] parameters, String table, String... expectedIndexes) {
+        JsonNode plan = explain(sql, parameters);
+        List<String> accesses = new ArrayList<>();
+        collectAccesses(plan, table, accesses);
+
+        assertThat(accesses).as("plan of %s: %s", sql, plan)
+                .isNotEmpty()
+                .doesNotContain("Seq Scan")
+                .allSatisfy(index -> assertThat(index).isIn((Object[]) expectedIndexes));
+    }
+
+    private JsonNode explain(String sql, Object[] parameters) {
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, parameters);
+        try {
+            return objectMapper.readTree(json).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan of " + sql, e);
+        }
+    }
+
+    /**
+     * How each plan node reading the table gets at it: an index name, or "Seq Scan"
+     */
+    private static void collectAccesses(JsonNode node, String table, List<String> accesses) {
+        if (table.equals(node.path("Relation Name").asText())) {
+            switch (node.path("Node Type").asText()) {
+                case "Seq Scan" -> accesses.add("Seq Scan");
+                case "Index Scan", "Index Only Scan" -> accesses.add(node.path("Index Name").asText());
+                case "Bitmap Heap Scan" -> node.findValues("Index Name").forEach(name -> accesses.add(name.asText()));
+                default -> {
+                }
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectAccesses(child, table, accesses);
+        }
+    }
+}
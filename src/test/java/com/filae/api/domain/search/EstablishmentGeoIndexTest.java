@@ -0,0 +1,183 @@
+package com.filae.api.domain.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The grid lookup returns exactly what a linear haversine scan over every
+ * establishment returns, including around the antimeridian and near the poles
+ */
+class EstablishmentGeoIndexTest {
+
+    private static final List<String> CATEGORIES = List.of("restaurant", "Café", "bar", "bakery");
+
+    private final Random random = new Random(22);
+    private final List<Place> places = new ArrayList<>();
+
+    @Test
+    void nearestMatchesLinearScanAroundACity() {
+        // A dense city, its outskirts and a few distant establishments
+        scatter(-23.55, -46.63, 0.3, 3000);
+        scatter(-23.55, -46.63, 3, 500);
+        scatter(0, 0, 90, 200);
+        EstablishmentGeoIndex index = index(0.02);
+
+        for (int i = 0; i < 150; i++) {
+            double latitude = -23.55 + (random.nextDouble() - 0.5) * 4;
+            double longitude = -46.63 + (random.nextDouble() - 0.5) * 4;
+            assertSameAsLinearScan(index, latitude, longitude);
+        }
+    }
+
+    @Test
+    void nearestMatchesLinearScanAcrossTheAntimeridianAndNearThePoles() {
+        scatter(0, 179.9, 0.5, 500);
+        scatter(0, -179.9, 0.5, 500);
+        scatter(84, 20, 2, 500);
+        scatter(-84, -120, 2, 500);
+        EstablishmentGeoIndex index = index(0.05);
+
+        for (int i = 0; i < 100; i++) {
+            assertSameAsLinearScan(index, (random.nextDouble() - 0.5) * 0.6,
+                    random.nextBoolean() ? 179.95 : -179.95);
+            assertSameAsLinearScan(index, 84 + (random.nextDouble() - 0.5) * 3, 20 + (random.nextDouble() - 0.5) * 3);
+            assertSameAsLinearScan(index, -84 + (random.nextDouble() - 0.5) * 3, -120 + (random.nextDouble() - 0.5) * 3);
+        }
+    }
+
+    @Test
+    void nearestMatchesLinearScanWhenNothingIsClose() {
+        scatter(-23.55, -46.63, 0.1, 200);
+        EstablishmentGeoIndex index = index(0.02);
+
+        // Few or no results within the radius: the ring scan must stop at the radius, not miss anything inside it
+        for (int i = 0; i < 50; i++) {
+            assertSameAsLinearScan(index, -23.55 + (random.nextDouble() - 0.5) * 2,
+                    -46.63 + (random.nextDouble() - 0.5) * 2);
+        }
+    }
+
+    private void assertSameAsLinearScan(EstablishmentGeoIndex index, double latitude, double longitude) {
+        List<Candidate> byDistance = places.stream()
+                .map(place -> new Candidate(place,
+                        EstablishmentGeoIndex.distanceKm(latitude, longitude, place.latitude(), place.longitude())))
+                .sorted(Comparator.comparingDouble(Candidate::distanceKm))
+                .toList();
+
+        for (double radiusKm : new double[]{0.5, 5, 50}) {
+            for (int limit : new int[]{1, 10, 50}) {
+                for (String category : new String[]{null, "cafe"}) {
+                    for (boolean acceptingOnly : new boolean[]{false, true}) {
+                        List<NearbyMatch> grid = index.nearest(latitude, longitude, radiusKm, limit, category,
+                                acceptingOnly);
+                        List<NearbyMatch> linear = linearScan(byDistance, radiusKm, limit, category, acceptingOnly);
+
+                        if (!sameMatches(grid, linear)) {
+                            assertThat(grid).as("nearest(%s, %s, %s km, %s, %s, %s)", latitude, longitude,
+                                    radiusKm, limit, category, acceptingOnly).isEqualTo(linear);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Same establishments in the same order, at the same distances up to rounding
+     */
+    private static boolean sameMatches(List<NearbyMatch> grid, List<NearbyMatch> linear) {
+        if (grid.size() != linear.size()) {
+            return false;
+        }
+        for (int i = 0; i < grid.size(); i++) {
+            if (!grid.get(i).establishmentId().equals(linear.get(i).establishmentId())
+                    || Math.abs(grid.get(i).distanceKm() - linear.get(i).distanceKm()) > 1e-9) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The expected result: every establishment passing the filters, closest first
+     */
+    private static List<NearbyMatch> linearScan(List<Candidate> byDistance, double radiusKm, int limit,
+                                                String category, boolean acceptingOnly) {
+        String categoryKey = category == null ? null : SearchText.fold(category);
+        return byDistance.stream()
+                .takeWhile(candidate -> candidate.distanceKm() <= radiusKm)
+                .filter(candidate -> !acceptingOnly || candidate.place().accepting())
+                .filter(candidate -> categoryKey == null || categoryKey.equals(candidate.place().categoryKey()))
+                .limit(limit)
+                .map(candidate -> new NearbyMatch(candidate.place().id(), candidate.distanceKm()))
+                .toList();
+    }
+
+    /**
+     * Establishments uniformly spread within spreadDegrees of a center, longitudes wrapped to [-180, 180)
+     */
+    private void scatter(double latitude, double longitude, double spreadDegrees, int count) {
+        for (int i = 0; i < count; i++) {
+            double lat = Math.max(-89.9, Math.min(89.9, latitude + (random.nextDouble() - 0.5) * 2 * spreadDegrees));
+            double lon = longitude + (random.nextDouble() - 0.5) * 2 * spreadDegrees;
+            lon = ((lon + 180) % 360 + 360) % 360 - 180;
+            String category = CATEGORIES.get(random.nextInt(CATEGORIES.size()));
+            places.add(new Place((long) places.size() + 1, lat, lon, category, SearchText.fold(category),
+                    random.nextInt(4) != 0));
+        }
+    }
+
+    /**
+     * An index loaded from the places, as its startup query would
+     */
+    @SuppressWarnings("unchecked")
+    private EstablishmentGeoIndex index(double cellDegrees) {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> rows = new ArrayList<>();
+            for (Place place : places) {
+                rows.add(mapper.mapRow(place.row(), rows.size()));
+            }
+            return rows;
+        });
+
+        EstablishmentGeoIndex index = new EstablishmentGeoIndex(jdbcTemplate, cellDegrees);
+        index.rebuild();
+        assertThat(index.size()).isEqualTo(places.size());
+        return index;
+    }
+
+    private record Candidate(Place place, double distanceKm) {
+    }
+
+    private record Place(Long id, double latitude, double longitude, String category, String categoryKey,
+                         boolean accepting) {
+
+        ResultSet row() {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName() + ":" + args[0]) {
+                        case "getLong:id" -> id;
+                        case "getDouble:latitude" -> latitude;
+                        case "getDouble:longitude" -> longitude;
+                        case "getString:category" -> category;
+                        case "getBoolean:is_accepting_customers" -> accepting;
+                        default -> throw new UnsupportedOperationException(method.getName() + " " + args[0]);
+                    });
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.filae.api.domain.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Text queries against a small index: a missing query lists by filters only,
+ * while a query with nothing searchable in it matches nothing
+ */
+class EstablishmentSearchIndexTest {
+
+    private static final List<Place> PLACES = List.of(
+            new Place(1L, "Café São Jorge", "Espresso bar", "Café", "São Paulo", 4.5),
+            new Place(2L, "Padaria Central", "Pão fresco", "bakery", "São Paulo", 4.0),
+            new Place(3L, "Bar do Zé", "Petiscos", "bar", "Rio de Janeiro", 3.5));
+
+    private EstablishmentSearchIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> rows = new ArrayList<>();
+            for (Place place : PLACES) {
+                rows.add(mapper.mapRow(place.row(), rows.size()));
+            }
+            return rows;
+        });
+
+        index = new EstablishmentSearchIndex(jdbcTemplate, 0.35);
+        index.rebuild();
+    }
+
+    @Test
+    void missingQueryListsEveryEstablishmentPassingTheFilters() {
+        assertThat(index.search(null, null, null, 10)).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("  ", null, "sao paulo", 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void queryWithoutSearchableCharactersMatchesNothing() {
+        assertThat(index.search("!!!", null, null, 10)).isEmpty();
+        assertThat(index.search("  -- ", "cafe", "Sao Paulo", 10)).isEmpty();
+    }
+
+    @Test
+    void textQueryMatchesFoldedTokens() {
+        assertThat(index.search("SAO jorge", null, null, 10)).containsExactly(1L);
+        assertThat(index.search("pad", null, null, 10)).containsExactly(2L);
+    }
+
+    private record Place(Long id, String name, String description, String category, String city, double rating) {
+
+        ResultSet row() {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName() + ":" + args[0]) {
+                        case "getLong:id" -> id;
+                        case "getString:name" -> name;
+                        case "getString:description" -> description;
+                        case "getString:category" -> category;
+                        case "getString:city" -> city;
+                        case "getDouble:rating" -> rating;
+                        default -> throw new UnsupportedOperationException(method.getName() + " " + args[0]);
+                    });
+        }
+    }
+}
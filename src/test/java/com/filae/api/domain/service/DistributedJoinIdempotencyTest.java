@@ -0,0 +1,48 @@
+package com.filae.api.domain.service;
+
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A retried join finds the ticket its key created even when another node
+ * committed it, so this node's key cache never saw it
+ */
+@TestPropertySource(properties = "queue.locking.distributed=true")
+class DistributedJoinIdempotencyTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private QueueService queueService;
+
+    @Test
+    void joinStoresItsKeyOnTheEntry() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+
+        QueueSnapshot ticket = queueService.joinQueue(establishmentId, createUser("CUSTOMER"), 1, null, "join-1");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT join_key FROM queues WHERE id = ?", String.class,
+                ticket.id())).isEqualTo("join-1");
+    }
+
+    @Test
+    void retryReturnsTheTicketAnotherNodeCreated() {
+        Long merchantId = createUser("MERCHANT");
+        Long establishmentId = createEstablishment(merchantId);
+        Long userId = createUser("CUSTOMER");
+        Long otherNodeTicket = jdbcTemplate.queryForObject(
+                "INSERT INTO queues (ticket_number, establishment_id, merchant_id, user_id, party_size, position, " +
+                "total_in_queue, status, joined_at, created_at, join_key) " +
+                "VALUES ('N2-001', ?, ?, ?, 1, 1, 1, 'WAITING', now(), now(), 'join-2') RETURNING id",
+                Long.class, establishmentId, merchantId, userId);
+
+        QueueSnapshot replayed = queueService.joinQueue(establishmentId, userId, 1, null, "join-2");
+
+        assertThat(replayed.id()).isEqualTo(otherNodeTicket);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM queues WHERE user_id = ?", Integer.class,
+                userId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,10 @@
+package com.filae.api.domain.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The same load with advisory locks, database-side counts and SKIP LOCKED calls
+ */
+@TestPropertySource(properties = "queue.locking.distributed=true")
+class DistributedQueueServiceConcurrencyTest extends QueueServiceConcurrencyTest {
+}
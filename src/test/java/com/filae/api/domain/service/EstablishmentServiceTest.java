@@ -0,0 +1,54 @@
+package com.filae.api.domain.service;
+
+import com.filae.api.domain.entity.Establishment;
+import com.filae.api.domain.repository.UserRepository;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EstablishmentServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private EstablishmentService establishmentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void builtEstablishmentStartsWithoutReviews() {
+        Establishment created = establishmentService.createEstablishment(establishment().build());
+
+        assertThat(created.getRating()).isEqualTo(0.0);
+        assertThat(created.getReviewCount()).isZero();
+        assertThat(created.getIsAcceptingCustomers()).isTrue();
+        assertThat(created.getQueueEnabled()).isTrue();
+        assertThat(storedRating(created.getId())).isEqualTo(0.0);
+    }
+
+    @Test
+    void explicitNullRatingIsStoredAsZero() {
+        Establishment establishment = establishment().build();
+        establishment.setRating(null);
+        establishment.setReviewCount(null);
+
+        Establishment created = establishmentService.createEstablishment(establishment);
+
+        assertThat(storedRating(created.getId())).isEqualTo(0.0);
+    }
+
+    private Establishment.EstablishmentBuilder establishment() {
+        return Establishment.builder()
+                .name("Rating Test")
+                .category("restaurant")
+                .address("Rua Teste, 2")
+                .city("Campinas")
+                .state("SP")
+                .merchant(userRepository.getReferenceById(createUser("MERCHANT")));
+    }
+
+    private Double storedRating(Long id) {
+        return jdbcTemplate.queryForObject("SELECT rating FROM establishments WHERE id = ?", Double.class, id);
+    }
+}
@@ -0,0 +1,132 @@
+package com.filae.api.domain.service;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hundreds of threads joining and calling one establishment's queue at once
+ */
+@TestPropertySource(properties = "queue.locking.timeout=60000")
+class QueueServiceConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 300;
+
+    @Autowired
+    private QueueService queueService;
+
+    @Test
+    void concurrentJoinsGetDistinctConsecutivePositions() throws Exception {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        List<Long> users = createUsers(THREADS);
+
+        List<QueueSnapshot> tickets = runConcurrently(users.stream()
+                .<Callable<QueueSnapshot>>map(userId -> () -> queueService.joinQueue(establishmentId, userId, 1, null, null))
+                .toList());
+
+        assertThat(tickets).hasSize(THREADS);
+        assertThat(tickets).extracting(QueueSnapshot::position)
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, THREADS).boxed().toList());
+        assertThat(tickets).extracting(QueueSnapshot::ticketNumber).doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT position FROM queues WHERE establishment_id = ? ORDER BY sequence_number",
+                Integer.class, establishmentId))
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, THREADS).boxed().toList());
+        assertContiguousQueue(establishmentId, THREADS);
+    }
+
+    @Test
+    void concurrentCallsNeverCallTheSameTicketTwice() throws Exception {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        for (Long userId : createUsers(THREADS)) {
+            queueService.joinQueue(establishmentId, userId, 1, null, null);
+        }
+        List<Long> lateUsers = createUsers(THREADS / 2);
+
+        List<Callable<QueueSnapshot>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS / 2; i++) {
+            tasks.add(() -> queueService.callNext(establishmentId));
+            Long userId = lateUsers.get(i);
+            tasks.add(() -> queueService.joinQueue(establishmentId, userId, 1, null, null));
+        }
+        List<QueueSnapshot> results = runConcurrently(tasks);
+
+        List<Long> called = results.stream()
+                .filter(ticket -> ticket.status() == Queue.QueueStatus.CALLED)
+                .map(QueueSnapshot::id)
+                .toList();
+        assertThat(called).hasSize(THREADS / 2).doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM queues WHERE establishment_id = ? AND status = 'CALLED'",
+                Integer.class, establishmentId)).isEqualTo(THREADS / 2);
+
+        // Tickets are called in queue order: exactly the first half of the original line
+        List<Long> firstInLine = jdbcTemplate.queryForList(
+                "SELECT id FROM queues WHERE establishment_id = ? ORDER BY sequence_number LIMIT ?",
+                Long.class, establishmentId, THREADS / 2);
+        assertThat(called).containsExactlyInAnyOrderElementsOf(firstInLine);
+        assertContiguousQueue(establishmentId, THREADS);
+    }
+
+    /**
+     * The engine and the database agree on who waits, and positions run 1..n without gaps
+     */
+    private void assertContiguousQueue(Long establishmentId, int expectedWaiting) {
+        List<QueueSnapshot> waiting = queueService.getEstablishmentQueue(establishmentId);
+        assertThat(waiting).extracting(QueueSnapshot::position)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, expectedWaiting).boxed().toList());
+        assertThat(waiting).extracting(QueueSnapshot::id)
+                .containsExactlyElementsOf(jdbcTemplate.queryForList(
+                        "SELECT id FROM queues WHERE establishment_id = ? AND status = 'WAITING' ORDER BY sequence_number",
+                        Long.class, establishmentId));
+    }
+
+    private List<Long> createUsers(int count) {
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(createUser("CUSTOMER"));
+        }
+        return users;
+    }
+
+    /**
+     * Run every task on its own thread, released at the same moment
+     */
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(2, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
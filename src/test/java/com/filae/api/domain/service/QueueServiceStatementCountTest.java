@@ -0,0 +1,91 @@
+package com.filae.api.domain.service;
+
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.support.PostgresIntegrationTest;
+import com.filae.api.support.StatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Merchant queue reads issue a fixed number of statements however many
+ * entries, users and establishments they return (no N+1 over associations)
+ */
+@Import(StatementCounter.class)
+class QueueServiceStatementCountTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired
+    private QueueEngine queueEngine;
+
+    @Test
+    void merchantReadsDoNotGrowWithTheNumberOfEntries() {
+        Long merchantId = createUser("MERCHANT");
+        Long establishmentId = createEstablishment(merchantId);
+        joinQueues(establishmentId, 2);
+        createAndCall(merchantId, 1);
+
+        Map<String, Integer> few = countReads(merchantId, establishmentId);
+
+        joinQueues(establishmentId, 20);
+        for (int i = 0; i < 5; i++) {
+            joinQueues(createEstablishment(merchantId), 3);
+        }
+        createAndCall(merchantId, 5);
+
+        Map<String, Integer> many = countReads(merchantId, establishmentId);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(few.values()).allSatisfy(statements -> assertThat(statements).isBetween(1, 3));
+    }
+
+    @Test
+    void engineRebuildLoadsWaitingEntriesInOneQuery() {
+        Long merchantId = createUser("MERCHANT");
+        joinQueues(createEstablishment(merchantId), 2);
+        int few = StatementCounter.count(queueEngine::rebuild);
+
+        for (int i = 0; i < 5; i++) {
+            joinQueues(createEstablishment(merchantId), 4);
+        }
+        int many = StatementCounter.count(queueEngine::rebuild);
+
+        assertThat(many).isEqualTo(few);
+    }
+
+    private Map<String, Integer> countReads(Long merchantId, Long establishmentId) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("all", StatementCounter.count(() ->
+                assertThat(queueService.getMerchantAllQueues(merchantId, null, 100).items()).isNotEmpty()));
+        counts.put("active", StatementCounter.count(() ->
+                assertThat(queueService.getMerchantActiveQueues(merchantId)).isNotEmpty()));
+        counts.put("establishment", StatementCounter.count(() ->
+                assertThat(queueService.getMerchantEstablishmentQueues(merchantId, establishmentId, null, 100).items())
+                        .isNotEmpty()));
+        return counts;
+    }
+
+    private void joinQueues(Long establishmentId, int customers) {
+        for (int i = 0; i < customers; i++) {
+            queueService.joinQueue(establishmentId, createUser("CUSTOMER"), 1, null, null);
+        }
+    }
+
+    /**
+     * Entries in other states than WAITING, as history reads return them too
+     */
+    private void createAndCall(Long merchantId, int count) {
+        Long establishmentId = createEstablishment(merchantId);
+        joinQueues(establishmentId, count);
+        for (int i = 0; i < count; i++) {
+            queueService.callNext(establishmentId);
+        }
+    }
+}
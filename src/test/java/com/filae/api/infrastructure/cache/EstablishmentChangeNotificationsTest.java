@@ -0,0 +1,126 @@
+package com.filae.api.infrastructure.cache;
+
+import com.filae.api.domain.entity.Establishment;
+import com.filae.api.domain.establishment.CachedEstablishment;
+import com.filae.api.domain.establishment.EstablishmentCache;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.EstablishmentChangedEvent;
+import com.filae.api.domain.repository.EstablishmentRepository;
+import com.filae.api.domain.search.EstablishmentGeoIndex;
+import com.filae.api.domain.search.EstablishmentSearchIndex;
+import com.filae.api.domain.service.EstablishmentService;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Establishment changes committed on one node evict the establishment from
+ * the cache of another node listening on the same database
+ */
+class EstablishmentChangeNotificationsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private EstablishmentService establishmentService;
+
+    @Autowired
+    private EstablishmentCache establishmentCache;
+
+    @Autowired
+    private EstablishmentRepository establishmentRepository;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private PostgresNotifications otherNotifications;
+    private EstablishmentChangeNotifications otherNode;
+    private EstablishmentCache otherCache;
+    private EstablishmentSearchIndex otherSearchIndex;
+    private EstablishmentGeoIndex otherGeoIndex;
+
+    @BeforeEach
+    void startOtherNode() throws InterruptedException {
+        CountDownLatch listening = new CountDownLatch(1);
+        otherNotifications = new PostgresNotifications(jdbcTemplate, dataSourceProperties, true, 100, 1000);
+        otherNotifications.subscribe("test_ready", payload -> {
+        }, listening::countDown);
+
+        otherCache = new EstablishmentCache(establishmentRepository, new CacheMetrics(), 100, 600_000);
+        otherSearchIndex = mock(EstablishmentSearchIndex.class);
+        otherGeoIndex = mock(EstablishmentGeoIndex.class);
+        otherNode = new EstablishmentChangeNotifications(otherNotifications, otherCache, otherSearchIndex,
+                otherGeoIndex);
+
+        otherNotifications.afterSingletonsInstantiated();
+        assertThat(listening.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @AfterEach
+    void stopOtherNode() {
+        otherNotifications.shutdown();
+    }
+
+    @Test
+    void updateOnThisNodeEvictsTheOtherNodesCopy() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        assertThat(otherCache.get(establishmentId)).get().extracting(CachedEstablishment::name)
+                .asString().startsWith("Test ");
+
+        establishmentService.updateEstablishment(establishmentId, Establishment.builder().name("Renamed").build());
+
+        await(() -> otherCache.get(establishmentId).map(CachedEstablishment::name).orElseThrow().equals("Renamed"));
+        verify(otherSearchIndex, timeout(5000)).refresh(establishmentId, false);
+        verify(otherGeoIndex, timeout(5000)).refresh(establishmentId, false);
+    }
+
+    @Test
+    void changeAnnouncedByTheOtherNodeEvictsThisNodesCopy() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        assertThat(establishmentCache.get(establishmentId)).isPresent();
+
+        // Changed by the other node: this node only learns about it from the notification
+        jdbcTemplate.update("UPDATE establishments SET name = 'Changed elsewhere' WHERE id = ?", establishmentId);
+        assertThat(establishmentCache.get(establishmentId).orElseThrow().name()).isNotEqualTo("Changed elsewhere");
+
+        otherNode.onEstablishmentChanged(new EstablishmentChangedEvent(establishmentId, ChangeType.UPDATED));
+
+        await(() -> establishmentCache.get(establishmentId).orElseThrow().name().equals("Changed elsewhere"));
+    }
+
+    @Test
+    void notificationsOfANodeAreNotAppliedByItself() throws InterruptedException {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        otherCache.get(establishmentId);
+        jdbcTemplate.update("UPDATE establishments SET name = 'Silent change' WHERE id = ?", establishmentId);
+
+        otherNode.onEstablishmentChanged(new EstablishmentChangedEvent(establishmentId, ChangeType.UPDATED));
+        Thread.sleep(500);
+
+        // Its own after-commit listeners handle its changes; the notification is for the other nodes
+        assertThat(otherCache.get(establishmentId).orElseThrow().name()).isNotEqualTo("Silent change");
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.filae.api.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.queue.EstablishmentLocks;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.domain.queue.QueueSummaries;
+import com.filae.api.domain.queue.WaitTimeEstimator;
+import com.filae.api.domain.repository.QueueRepository;
+import com.filae.api.domain.service.QueueService;
+import com.filae.api.domain.stats.MerchantStatsTracker;
+import com.filae.api.domain.stats.SystemCounters;
+import com.filae.api.infrastructure.websocket.QueueUpdatePublisher;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Queue changes committed by this application reach the in-memory state of a
+ * second node listening on the same database
+ */
+@TestPropertySource(properties = "queue.locking.distributed=true")
+class QueueChangeNotificationsTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private QueueService queueService;
+
+    @Autowired
+    private QueueRepository queueRepository;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private PostgresNotifications otherNotifications;
+    private QueueEngine otherEngine;
+    private MerchantStatsTracker otherStats;
+    private WaitTimeEstimator otherEstimator;
+    private QueueSummaries otherSummaries;
+    private SystemCounters otherCounters;
+    private QueueUpdatePublisher otherPublisher;
+
+    @BeforeEach
+    void startOtherNode() throws InterruptedException {
+        CountDownLatch listening = new CountDownLatch(1);
+        otherNotifications = new PostgresNotifications(jdbcTemplate, dataSourceProperties, true, 100, 1000);
+        otherNotifications.subscribe("test_ready", payload -> {
+        }, listening::countDown);
+
+        otherEstimator = spy(new WaitTimeEstimator(jdbcTemplate, 0.2, 5, 10, 120, 0));
+        otherEngine = new QueueEngine(queueRepository, otherEstimator);
+        otherSummaries = new QueueSummaries(otherEngine, jdbcTemplate);
+        otherStats = mock(MerchantStatsTracker.class);
+        otherCounters = mock(SystemCounters.class);
+        otherPublisher = mock(QueueUpdatePublisher.class);
+        new QueueChangeNotifications(otherNotifications, objectMapper,
+                new EstablishmentLocks(jdbcTemplate, 1, 1000, true), otherEngine,
+                otherStats, otherEstimator, otherSummaries, otherCounters, otherPublisher);
+
+        otherNotifications.afterSingletonsInstantiated();
+        assertThat(listening.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @AfterEach
+    void stopOtherNode() {
+        otherNotifications.shutdown();
+    }
+
+    @Test
+    void joinsAndCallsOnThisNodeReachTheOtherNode() {
+        Long establishmentId = createEstablishment(createUser("MERCHANT"));
+        QueueSnapshot first = queueService.joinQueue(establishmentId, createUser("CUSTOMER"), 2, "window seat", null);
+        QueueSnapshot second = queueService.joinQueue(establishmentId, createUser("CUSTOMER"), 1, null, null);
+
+        await(() -> otherEngine.length(establishmentId) == 2);
+        assertThat(otherEngine.getWaiting(establishmentId))
+                .extracting(QueueSnapshot::id, QueueSnapshot::position, QueueSnapshot::notes)
+                .containsExactly(
+                        tuple(first.id(), 1, "window seat"),
+                        tuple(second.id(), 2, null));
+
+        queueService.callNext(establishmentId);
+
+        await(() -> otherEngine.length(establishmentId) == 1);
+        assertThat(otherEngine.find(second.id())).get().extracting(QueueSnapshot::position).isEqualTo(1);
+        await(() -> otherSummaries.get(establishmentId).called() == 1);
+        verify(otherStats, timeout(10_000).times(3)).apply(any());
+        verify(otherEstimator, timeout(10_000).times(3)).apply(any());
+        verify(otherCounters, timeout(10_000).times(3)).onQueueStatusChanged(any());
+
+        ArgumentCaptor<QueueStatusChangedEvent> pushed = ArgumentCaptor.forClass(QueueStatusChangedEvent.class);
+        verify(otherPublisher, timeout(10_000).times(3)).onQueueStatusChanged(pushed.capture());
+        List<QueueStatusChangedEvent> events = pushed.getAllValues();
+        assertThat(events.get(2).previousStatus()).isEqualTo(Queue.QueueStatus.WAITING);
+        assertThat(events.get(2).ticket().calledAt()).isNotNull();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.filae.api.infrastructure.security;
+
+import com.filae.api.domain.entity.User;
+import com.filae.api.domain.event.ChangeType;
+import com.filae.api.domain.event.UserChangedEvent;
+import com.filae.api.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountStatusCacheTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AccountStatusCache accountStatus;
+
+    @Test
+    void deactivatedUserIsRejectedOnceEvicted() {
+        Long userId = createUser("CUSTOMER");
+        AuthenticatedUser token = new AuthenticatedUser(userId, "user@test.filae", User.UserType.CUSTOMER, true);
+        assertThat(accountStatus.isCurrent(token)).isTrue();
+
+        jdbcTemplate.update("UPDATE users SET is_active = FALSE WHERE id = ?", userId);
+        accountStatus.onUserChanged(new UserChangedEvent(userId, ChangeType.UPDATED));
+
+        assertThat(accountStatus.isCurrent(token)).isFalse();
+    }
+
+    @Test
+    void tokenIssuedForAnotherUserTypeIsRejected() {
+        Long userId = createUser("MERCHANT");
+
+        assertThat(accountStatus.isCurrent(
+                new AuthenticatedUser(userId, "user@test.filae", User.UserType.CUSTOMER, true))).isFalse();
+        assertThat(accountStatus.isCurrent(
+                new AuthenticatedUser(userId, "user@test.filae", User.UserType.MERCHANT, true))).isTrue();
+    }
+
+    @Test
+    void deletedUserIsRejected() {
+        Long userId = createUser("CUSTOMER");
+        AuthenticatedUser token = new AuthenticatedUser(userId, "user@test.filae", User.UserType.CUSTOMER, true);
+        assertThat(accountStatus.isCurrent(token)).isTrue();
+
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        accountStatus.onUserChanged(new UserChangedEvent(userId, ChangeType.DELETED));
+
+        assertThat(accountStatus.isCurrent(token)).isFalse();
+    }
+}
@@ -0,0 +1,96 @@
+package com.filae.api.infrastructure.websocket;
+
+import com.filae.api.application.dto.queue.TicketUpdateMessage;
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.event.QueueStatusChangedEvent;
+import com.filae.api.domain.queue.QueueEngine;
+import com.filae.api.domain.queue.QueueSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueueUpdatePublisherTest {
+
+    private static final Long ESTABLISHMENT_ID = 1L;
+
+    @Test
+    void statusChangeRecordedWhileATickTakesThePendingChangesIsNotLost() throws Exception {
+        Map<Long, AtomicInteger> published = new ConcurrentHashMap<>();
+        QueueUpdatePublisher publisher = publisher(published);
+        publisher.onQueueStatusChanged(called(1L));
+
+        // The tick runs while the second change is being recorded, right when its ticket is read
+        QueueSnapshot ticket = called(2L).ticket();
+        QueueStatusChangedEvent racing = mock(QueueStatusChangedEvent.class);
+        when(racing.establishmentId()).thenReturn(ESTABLISHMENT_ID);
+        when(racing.newStatus()).thenReturn(Queue.QueueStatus.CALLED);
+        AtomicBoolean ticked = new AtomicBoolean();
+        Thread tick = new Thread(publisher::publishPending);
+        when(racing.ticket()).thenAnswer(invocation -> {
+            if (ticked.compareAndSet(false, true)) {
+                tick.start();
+                tick.join(200);
+            }
+            return ticket;
+        });
+
+        publisher.onQueueStatusChanged(racing);
+        tick.join();
+        publisher.publishPending();
+
+        assertThat(published).containsOnlyKeys(1L, 2L);
+        assertThat(published.values()).allMatch(count -> count.get() == 1);
+    }
+
+    @Test
+    void statusChangesOfOneTickAreCoalescedPerTicket() {
+        Map<Long, AtomicInteger> published = new ConcurrentHashMap<>();
+        QueueUpdatePublisher publisher = publisher(published);
+
+        publisher.onQueueStatusChanged(called(7L));
+        publisher.onQueueStatusChanged(called(7L));
+        publisher.onQueueStatusChanged(called(8L));
+        publisher.publishPending();
+        publisher.publishPending();
+
+        assertThat(published).containsOnlyKeys(7L, 8L);
+        assertThat(published.values()).allMatch(count -> count.get() == 1);
+    }
+
+    /**
+     * Publisher over an empty queue engine, counting the frames sent to each ticket destination
+     */
+    private static QueueUpdatePublisher publisher(Map<Long, AtomicInteger> published) {
+        QueueEngine queueEngine = mock(QueueEngine.class);
+        when(queueEngine.getWaiting(anyLong())).thenReturn(List.of());
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            if (invocation.getArgument(1) instanceof TicketUpdateMessage message) {
+                published.computeIfAbsent(message.getQueueId(), id -> new AtomicInteger()).incrementAndGet();
+            }
+            return null;
+        }).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+        return new QueueUpdatePublisher(queueEngine, messagingTemplate, mock(QueueSseEmitters.class));
+    }
+
+    private static QueueStatusChangedEvent called(long ticketId) {
+        LocalDateTime now = LocalDateTime.now();
+        QueueSnapshot ticket = new QueueSnapshot(ticketId, "T-" + ticketId, ESTABLISHMENT_ID, "Test", 1L,
+                ticketId, "User", 1, null, ticketId, null, null, Queue.QueueStatus.CALLED, null, now, now, null);
+        return new QueueStatusChangedEvent(ticket, Queue.QueueStatus.WAITING, now);
+    }
+}
@@ -0,0 +1,113 @@
+package com.filae.api.infrastructure.websocket;
+
+import com.filae.api.domain.entity.Queue;
+import com.filae.api.domain.entity.User;
+import com.filae.api.domain.queue.QueueSnapshot;
+import com.filae.api.domain.service.QueueService;
+import com.filae.api.infrastructure.security.AccountStatusCache;
+import com.filae.api.infrastructure.security.AuthenticatedUser;
+import com.filae.api.infrastructure.security.JwtTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Which frames an authenticated STOMP session may send and subscribe to
+ */
+class StompAuthChannelInterceptorTest {
+
+    private static final Long CUSTOMER_ID = 10L;
+    private static final Long MERCHANT_ID = 20L;
+    private static final Long OTHER_USER_ID = 30L;
+    private static final Long TICKET_ID = 100L;
+
+    private final QueueService queueService = mock(QueueService.class);
+    private final StompAuthChannelInterceptor interceptor = new StompAuthChannelInterceptor(
+            mock(JwtTokenProvider.class), mock(AccountStatusCache.class), queueService);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    StompAuthChannelInterceptorTest() {
+        when(queueService.getQueueById(anyLong())).thenReturn(Optional.empty());
+        when(queueService.getQueueById(TICKET_ID)).thenReturn(Optional.of(ticket()));
+    }
+
+    @Test
+    void clientsCannotPublishToBrokerTopics() {
+        for (String destination : new String[]{"/topic/establishments/1/queue", "/topic/tickets/" + TICKET_ID,
+                "/topic/users/" + CUSTOMER_ID + "/notifications", "/queue/anything"}) {
+            assertThatThrownBy(() -> send(StompCommand.SEND, destination, CUSTOMER_ID))
+                    .as(destination)
+                    .isInstanceOf(MessageDeliveryException.class);
+        }
+    }
+
+    @Test
+    void clientsMaySendToApplicationDestinations() {
+        assertThat(send(StompCommand.SEND, "/app/ping", CUSTOMER_ID)).isNotNull();
+    }
+
+    @Test
+    void sendRequiresAnAuthenticatedSession() {
+        assertThatThrownBy(() -> send(StompCommand.SEND, "/app/ping", null))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void ticketTopicIsLimitedToItsOwnerAndMerchant() {
+        String destination = "/topic/tickets/" + TICKET_ID;
+
+        assertThat(send(StompCommand.SUBSCRIBE, destination, CUSTOMER_ID)).isNotNull();
+        assertThat(send(StompCommand.SUBSCRIBE, destination, MERCHANT_ID)).isNotNull();
+        assertThatThrownBy(() -> send(StompCommand.SUBSCRIBE, destination, OTHER_USER_ID))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> send(StompCommand.SUBSCRIBE, "/topic/tickets/999", CUSTOMER_ID))
+                .isInstanceOf(MessageDeliveryException.class);
+        assertThatThrownBy(() -> send(StompCommand.SUBSCRIBE, "/topic/tickets/abc", CUSTOMER_ID))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void userTopicIsLimitedToThatUser() {
+        String destination = "/topic/users/" + CUSTOMER_ID + "/notifications";
+
+        assertThat(send(StompCommand.SUBSCRIBE, destination, CUSTOMER_ID)).isNotNull();
+        assertThatThrownBy(() -> send(StompCommand.SUBSCRIBE, destination, OTHER_USER_ID))
+                .isInstanceOf(MessageDeliveryException.class);
+    }
+
+    @Test
+    void establishmentTopicIsOpenToAuthenticatedUsers() {
+        assertThat(send(StompCommand.SUBSCRIBE, "/topic/establishments/1/queue", OTHER_USER_ID)).isNotNull();
+    }
+
+    private Message<?> send(StompCommand command, String destination, Long userId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        if (userId != null) {
+            AuthenticatedUser user = new AuthenticatedUser(userId, userId + "@test.filae", User.UserType.CUSTOMER, true);
+            accessor.setUser(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        }
+        accessor.setLeaveMutable(true);
+        return interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+    }
+
+    private static QueueSnapshot ticket() {
+        LocalDateTime now = LocalDateTime.now();
+        return new QueueSnapshot(TICKET_ID, "T-100", 1L, "Test", MERCHANT_ID, CUSTOMER_ID, "Customer", 1, null,
+                1L, 1, 1, Queue.QueueStatus.WAITING, 5, now, null, null);
+    }
+}
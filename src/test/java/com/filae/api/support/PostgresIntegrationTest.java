@@ -0,0 +1,57 @@
+package com.filae.api.support;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.UUID;
+
+/**
+ * Base class for tests running the application against a real Postgres (see TestDatabase).
+ * Flyway migrates the database on startup, so the seed data of V1 is present.
+ */
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void requireDatabase() {
+        Assumptions.assumeTrue(TestDatabase.isAvailable(),
+                "No test database: set TEST_DATABASE_URL or make Docker available");
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> TestDatabase.get().url());
+        registry.add("spring.datasource.username", () -> TestDatabase.get().username());
+        registry.add("spring.datasource.password", () -> TestDatabase.get().password());
+    }
+
+    /**
+     * Insert an active user, returning its id
+     */
+    protected Long createUser(String userType) {
+        String email = UUID.randomUUID() + "@test.filae";
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email, password_hash, user_type, is_active) " +
+                "VALUES (?, ?, 'x', ?, TRUE) RETURNING id",
+                Long.class, "Test " + email.substring(0, 8), email, userType);
+    }
+
+    /**
+     * Insert an establishment accepting customers, returning its id
+     */
+    protected Long createEstablishment(Long merchantId) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO establishments (name, category, address, city, state, merchant_id, " +
+                "is_accepting_customers, queue_enabled, rating) " +
+                "VALUES (?, 'restaurant', 'Rua Teste, 1', 'São Paulo', 'SP', ?, TRUE, TRUE, 0) RETURNING id",
+                Long.class, "Test " + UUID.randomUUID().toString().substring(0, 8), merchantId);
+    }
+}
@@ -0,0 +1,149 @@
+package com.filae.api.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Counts the JDBC statements the calling thread prepares, whether issued by
+ * Hibernate or a JdbcTemplate, and can record their SQL with the bound
+ * parameters. Import it into a test to wrap the DataSource.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+
+    /**
+     * Number of statements prepared by the current thread while running the action
+     */
+    public static int count(Runnable action) {
+        return record(action).size();
+    }
+
+    public static <T> Measured<T> measure(Supplier<T> action) {
+        List<RecordedStatement> statements = new ArrayList<>();
+        T result = recording(statements, action);
+        return new Measured<>(result, statements.size());
+    }
+
+    /**
+     * Statements prepared by the current thread while running the action, in order
+     */
+    public static List<RecordedStatement> record(Runnable action) {
+        List<RecordedStatement> statements = new ArrayList<>();
+        recording(statements, () -> {
+            action.run();
+            return null;
+        });
+        return statements;
+    }
+
+    private static <T> T recording(List<RecordedStatement> statements, Supplier<T> action) {
+        List<RecordedStatement> previous = RECORDING.get();
+        RECORDING.set(statements);
+        try {
+            return action.get();
+        } finally {
+            RECORDING.set(previous);
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+            return new CountingDataSource(dataSource);
+        }
+        return bean;
+    }
+
+    public record Measured<T>(T result, int statements) {
+    }
+
+    /**
+     * SQL of a statement (null for plain statements) and its parameters, by index from 1
+     */
+    public record RecordedStatement(String sql, SortedMap<Integer, Object> parameters) {
+
+        public Object[] parameterValues() {
+            return parameters.values().toArray();
+        }
+    }
+
+    private static final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        List<RecordedStatement> statements = RECORDING.get();
+                        if (statements == null) {
+                            return result;
+                        }
+
+                        String name = method.getName();
+                        if (name.equals("createStatement")) {
+                            statements.add(new RecordedStatement(null, new TreeMap<>()));
+                        } else if (name.equals("prepareStatement") || name.equals("prepareCall")) {
+                            RecordedStatement statement = new RecordedStatement((String) args[0], new TreeMap<>());
+                            statements.add(statement);
+                            return binding(result, statement, name.equals("prepareCall")
+                                    ? CallableStatement.class : PreparedStatement.class);
+                        }
+                        return result;
+                    });
+        }
+
+        /**
+         * Keeps the last value bound to each parameter index
+         */
+        private static Object binding(Object target, RecordedStatement statement, Class<?> type) {
+            return Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer index) {
+                            statement.parameters().put(index, method.getName().equals("setNull") ? null : args[1]);
+                        } else if (method.getName().equals("clearParameters")) {
+                            statement.parameters().clear();
+                        }
+                        return invoke(target, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.filae.api.support;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Postgres database for integration tests, created once per test JVM.
+ *
+ * With TEST_DATABASE_URL set (plus optional TEST_DATABASE_USERNAME and
+ * TEST_DATABASE_PASSWORD) the filae_test database is dropped and created again
+ * on that server; otherwise a Testcontainers Postgres is started when Docker is
+ * available. Without either, integration tests are skipped.
+ */
+public final class TestDatabase {
+
+    private static final String IMAGE = "postgres:16-alpine";
+    private static final String NAME = "filae_test";
+
+    private static volatile TestDatabase instance;
+    private static volatile boolean resolved;
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private TestDatabase(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    public static boolean isAvailable() {
+        return get() != null;
+    }
+
+    public static synchronized TestDatabase get() {
+        if (!resolved) {
+            instance = create();
+            resolved = true;
+        }
+        return instance;
+    }
+
+    public String url() {
+        return url;
+    }
+
+    public String username() {
+        return username;
+    }
+
+    public String password() {
+        return password;
+    }
+
+    private static TestDatabase create() {
+        String serverUrl = System.getenv("TEST_DATABASE_URL");
+        if (serverUrl != null && !serverUrl.isBlank()) {
+            String username = System.getenv().getOrDefault("TEST_DATABASE_USERNAME", "postgres");
+            String password = System.getenv().getOrDefault("TEST_DATABASE_PASSWORD", "");
+            return createDatabase(serverUrl, username, password);
+        }
+
+        if (!DockerClientFactory.instance().isDockerAvailable()) {
+            return null;
+        }
+        PostgreSQLContainer<?> container = new PostgreSQLContainer<>(IMAGE);
+        container.start();
+        return new TestDatabase(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+
+    private static TestDatabase createDatabase(String serverUrl, String username, String password) {
+        try (Connection connection = DriverManager.getConnection(serverUrl, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + NAME + " WITH (FORCE)");
+            statement.execute("CREATE DATABASE " + NAME);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create test database on " + serverUrl, e);
+        }
+        return new TestDatabase(withDatabase(serverUrl, NAME), username, password);
+    }
+
+    /**
+     * Same server URL pointing at another database
+     */
+    private static String withDatabase(String serverUrl, String name) {
+        int hostStart = serverUrl.indexOf("//") + 2;
+        int pathStart = serverUrl.indexOf('/', hostStart);
+        int queryStart = serverUrl.indexOf('?', hostStart);
+        String query = queryStart < 0 ? "" : serverUrl.substring(queryStart);
+        String server = pathStart < 0
+                ? (queryStart < 0 ? serverUrl : serverUrl.substring(0, queryStart))
+                : serverUrl.substring(0, pathStart);
+        return server + "/" + name + query;
+    }
+}